@@ -0,0 +1,188 @@
+import java.util.*;
+
+/**
+ * Bidirectional Dijkstra for single S -> D distance queries.
+ *
+ * One search grows from S on the graph, the other from D on the reversed
+ * graph; each step expands the side with the smaller queue. best holds the
+ * shortest S -> D path seen through any edge scanned so far, and the search
+ * stops once minF + minB >= best, since no path through an unsettled vertex
+ * can be shorter than that.
+ *
+ * An instance keeps its arrays between queries and only resets the vertices
+ * the previous query touched, so repeated queries on one graph do not pay
+ * O(N) each.
+ *
+ * java BidirectionalDijkstra cross-checks query() against Main.dijkstra on
+ * random graphs and prints the settled-vertex counts of both.
+ */
+public class BidirectionalDijkstra {
+
+    static final int INF = Main.INF;
+
+    private final CsrGraph g;
+    private final CsrGraph rev;
+
+    private final int[] distF;
+    private final int[] distB;
+    private final boolean[] settledF;
+    private final boolean[] settledB;
+    private final MinHeapPriorityQueue forward;
+    private final MinHeapPriorityQueue backward;
+
+    // vertices given a distance by the last query, reset by the next one
+    private final int[] touched;
+    private final boolean[] isTouched;
+    private int touchedCount;
+
+    private int settled;
+
+    public BidirectionalDijkstra(CsrGraph g) {
+        this.g = g;
+        this.rev = g.reverse();
+        int N = g.N;
+        distF = new int[N];
+        distB = new int[N];
+        Arrays.fill(distF, INF);
+        Arrays.fill(distB, INF);
+        settledF = new boolean[N];
+        settledB = new boolean[N];
+        forward = new MinHeapPriorityQueue(N);
+        backward = new MinHeapPriorityQueue(N);
+        touched = new int[N];
+        isTouched = new boolean[N];
+    }
+
+    /**
+     * Shortest S -> D distance ignoring the edges in removed (an edge set of g,
+     * may be null), INF if D is unreachable.
+     */
+    public int query(int S, int D, long[] removed) {
+        reset();
+        if (S == D) {
+            return 0;
+        }
+
+        distF[S] = 0;
+        touch(S);
+        forward.Insert(S, 0);
+        distB[D] = 0;
+        touch(D);
+        backward.Insert(D, 0);
+
+        long best = INF;
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if ((long) forward.FindMinPriority() + backward.FindMinPriority() >= best) {
+                break;
+            }
+            if (forward.getSize() <= backward.getSize()) {
+                best = step(g, forward, distF, settledF, distB, removed, null, best);
+            } else {
+                best = step(rev, backward, distB, settledB, distF, removed, rev.forwardIds, best);
+            }
+        }
+        return best >= INF ? INF : (int) best;
+    }
+
+    // vertices settled by the last query, both directions together
+    public int getSettled() {
+        return settled;
+    }
+
+    // settle one vertex on one side, return the updated best
+    private long step(CsrGraph graph, MinHeapPriorityQueue pq, int[] dist, boolean[] done,
+                      int[] otherDist, long[] removed, int[] ids, long best) {
+        int u = pq.ExtractMin();
+        done[u] = true;
+        settled++;
+
+        for (int e = graph.offsets[u], end = graph.offsets[u + 1]; e < end; e++) {
+            if (removed != null && CsrGraph.isSet(removed, ids == null ? e : ids[e])) continue;
+            int v = graph.targets[e];
+            int alt = dist[u] + graph.weights[e];
+            if (otherDist[v] != INF) {
+                best = Math.min(best, (long) alt + otherDist[v]);
+            }
+            if (!done[v] && alt < dist[v]) {
+                dist[v] = alt;
+                touch(v);
+                pq.InsertOrDecrease(v, alt);
+            }
+        }
+        return best;
+    }
+
+    private void touch(int v) {
+        if (!isTouched[v]) {
+            isTouched[v] = true;
+            touched[touchedCount++] = v;
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            distF[v] = distB[v] = INF;
+            settledF[v] = settledB[v] = false;
+            isTouched[v] = false;
+        }
+        touchedCount = 0;
+        forward.StartHeap(g.N);
+        backward.StartHeap(g.N);
+        settled = 0;
+    }
+
+    // cross-check against the unidirectional Main.dijkstra
+    public static void main(String[] args) {
+        Random rnd = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        long queries = 0;
+        long settledBi = 0;
+        long settledUni = 0;
+
+        for (int round = 0; round < 300; round++) {
+            int N = 2 + rnd.nextInt(round < 250 ? 60 : 20_000);
+            int M = rnd.nextInt(4 * N + 1);
+            int maxWeight = rnd.nextBoolean() ? 10 : 1000;
+            int[] from = new int[M];
+            int[] to = new int[M];
+            int[] w = new int[M];
+            for (int i = 0; i < M; i++) {
+                from[i] = rnd.nextInt(N);
+                to[i] = rnd.nextInt(N);
+                w[i] = rnd.nextInt(maxWeight + 1);
+            }
+            CsrGraph g = new CsrGraph(N, M, from, to, w);
+            BidirectionalDijkstra bi = new BidirectionalDijkstra(g);
+            int[] dist = new int[N];
+
+            for (int q = 0; q < 10; q++) {
+                int S = rnd.nextInt(N);
+                int D = rnd.nextInt(N);
+                long[] removed = null;
+                if (rnd.nextBoolean()) {
+                    removed = g.newEdgeSet();
+                    for (int e = 0; e < M; e++) {
+                        if (rnd.nextInt(5) == 0) {
+                            CsrGraph.set(removed, e);
+                        }
+                    }
+                }
+
+                Main.dijkstra(g, S, dist, null, removed, false, MinHeapPriorityQueue.DEFAULT_ARITY);
+                int got = bi.query(S, D, removed);
+                if (got != dist[D]) {
+                    throw new IllegalStateException("round " + round + " S=" + S + " D=" + D
+                            + ": bidirectional " + got + ", dijkstra " + dist[D]);
+                }
+
+                queries++;
+                settledBi += bi.getSettled();
+                for (int d : dist) {
+                    if (d != INF) settledUni++;
+                }
+            }
+        }
+        System.out.println(queries + " queries agree with Main.dijkstra");
+        System.out.println("settled vertices: bidirectional " + settledBi + ", dijkstra " + settledUni);
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * Dial's bucket queue over dense int items 0..capacity-1.
+ *
+ * Meant for Dijkstra with small non-negative integer weights (at most
+ * maxWeight). It is monotone: a priority may never be below the last
+ * extracted one. All live priorities then lie in [base, base + maxWeight],
+ * so maxWeight + 1 circular buckets hold one priority value each and every
+ * operation is O(1) plus the scan over empty buckets, O(M + max distance)
+ * for a whole Dijkstra run.
+ *
+ * Priorities further out than base + maxWeight (e.g. Main.INF placeholders)
+ * wait in an overflow list that is only scanned once base gets within
+ * maxWeight of its smallest priority.
+ */
+public class BucketQueue implements IndexedPriorityQueue {
+
+    private static final int NIL = -1;
+    private static final int ABSENT = -1;
+    private static final int OVERFLOW = -2;
+
+    private final int numBuckets;
+    private final int[] bucketHead;
+    private int overflowHead;
+    // lower bound on the priorities in the overflow list (exact after a scan)
+    private int overflowMin;
+
+    // per item: priority, doubly linked bucket list, and which bucket it is in
+    private int[] key;
+    private int[] next;
+    private int[] prev;
+    private int[] where;
+
+    // lowest priority that may still be in the queue (last extracted)
+    private int base;
+    private int size;
+    private int inBuckets;
+
+    public BucketQueue(int capacity, int maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must be non-negative: " + maxWeight);
+        }
+        numBuckets = maxWeight + 1;
+        bucketHead = new int[numBuckets];
+        StartHeap(capacity);
+    }
+
+    // initialize / reset the queue to be empty with capacity N
+    public void StartHeap(int capacity) {
+        key = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        where = new int[capacity];
+        Arrays.fill(where, ABSENT);
+        Arrays.fill(bucketHead, NIL);
+        overflowHead = NIL;
+        overflowMin = Integer.MAX_VALUE;
+        base = 0;
+        size = 0;
+        inBuckets = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean contains(int item) {
+        return item >= 0 && item < where.length && where[item] != ABSENT;
+    }
+
+    public void Insert(int item, int priority) {
+        if (item < 0 || item >= where.length) {
+            throw new IllegalArgumentException("Item out of range: " + item);
+        }
+        if (where[item] != ABSENT) {
+            throw new IllegalArgumentException("Item already present in heap: " + item);
+        }
+        checkMonotone(priority);
+        key[item] = priority;
+        place(item);
+        size++;
+    }
+
+    public int ExtractMinItem() {
+        if (size == 0) {
+            return -1;
+        }
+        if (inBuckets == 0) {
+            // jump straight to the smallest overflow priority
+            int min = Integer.MAX_VALUE;
+            for (int item = overflowHead; item != NIL; item = next[item]) {
+                min = Math.min(min, key[item]);
+            }
+            base = min;
+        }
+        if ((long) overflowMin - base < numBuckets) {
+            pullFromOverflow();
+        }
+        int b = base % numBuckets;
+        while (bucketHead[b] == NIL) {
+            base++;
+            b = (b + 1 == numBuckets) ? 0 : b + 1;
+        }
+        int item = bucketHead[b];
+        unlink(item);
+        where[item] = ABSENT;
+        size--;
+        return item;
+    }
+
+    public void ChangePriority(int item, int newPriority) {
+        if (!contains(item) || key[item] == newPriority) {
+            return;
+        }
+        checkMonotone(newPriority);
+        unlink(item);
+        key[item] = newPriority;
+        place(item);
+    }
+
+    public boolean InsertOrDecrease(int item, int newPriority) {
+        if (!contains(item)) {
+            Insert(item, newPriority);
+            return true;
+        }
+        if (newPriority >= key[item]) {
+            return false;
+        }
+        ChangePriority(item, newPriority);
+        return true;
+    }
+
+    private void checkMonotone(int priority) {
+        if (priority < base) {
+            throw new IllegalArgumentException(
+                    "Priority " + priority + " is below the last extracted priority " + base);
+        }
+    }
+
+    // push item onto its bucket, or the overflow list if it is out of range
+    private void place(int item) {
+        int head;
+        if ((long) key[item] - base < numBuckets) {
+            int b = key[item] % numBuckets;
+            head = bucketHead[b];
+            bucketHead[b] = item;
+            where[item] = b;
+            inBuckets++;
+        } else {
+            head = overflowHead;
+            overflowHead = item;
+            where[item] = OVERFLOW;
+            overflowMin = Math.min(overflowMin, key[item]);
+        }
+        next[item] = head;
+        prev[item] = NIL;
+        if (head != NIL) {
+            prev[head] = item;
+        }
+    }
+
+    private void unlink(int item) {
+        int w = where[item];
+        if (prev[item] != NIL) {
+            next[prev[item]] = next[item];
+        } else if (w == OVERFLOW) {
+            overflowHead = next[item];
+        } else {
+            bucketHead[w] = next[item];
+        }
+        if (next[item] != NIL) {
+            prev[next[item]] = prev[item];
+        }
+        if (w != OVERFLOW) {
+            inBuckets--;
+        }
+    }
+
+    // move every overflow item now within range of base into its bucket
+    private void pullFromOverflow() {
+        int min = Integer.MAX_VALUE;
+        int item = overflowHead;
+        while (item != NIL) {
+            int following = next[item];
+            if ((long) key[item] - base < numBuckets) {
+                unlink(item);
+                place(item);
+            } else {
+                min = Math.min(min, key[item]);
+            }
+            item = following;
+        }
+        overflowMin = min;
+    }
+}
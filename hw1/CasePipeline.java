@@ -0,0 +1,116 @@
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Main's multi-case mode for inputs with many graphs: a reader thread parses
+ * cases into independent Main.Case objects, a fixed pool solves them with
+ * Main.solve, and the calling thread writes the answers in input order.
+ *
+ * The reader hands each submitted case's Future to the writer through a
+ * queue. It takes one of inFlight permits before it starts reading a case, and
+ * the writer gives the permit back once the answer is written. So at most
+ * inFlight cases are read (or being read) but not yet written, which bounds
+ * memory whatever the input size; a large case stuck at the head only stalls
+ * the reader once inFlight cases are waiting behind it.
+ *
+ * Per-case DijkstraStats are summed by the writer, in input order, so --stats
+ * gives the same totals as the sequential run.
+ */
+public class CasePipeline {
+
+    // default in-flight limit per worker: enough to keep workers busy behind one slow case
+    static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private static final class Result {
+        final int answer;
+        final DijkstraStats stats;
+
+        Result(int answer, DijkstraStats stats) {
+            this.answer = answer;
+            this.stats = stats;
+        }
+    }
+
+    // queued by the reader after the last case
+    private static final Future<Result> END = CompletableFuture.completedFuture(null);
+
+    private final Main.Options opt;
+    private final int threads;
+    private final int inFlight;
+
+    public CasePipeline(Main.Options opt, int threads, int inFlight) {
+        if (threads < 1 || inFlight < 1) {
+            throw new IllegalArgumentException("threads and inFlight must be at least 1: " + threads + ", " + inFlight);
+        }
+        this.opt = opt;
+        this.threads = threads;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Solves every case of br (up to EOF or "0 0"), printing one answer per
+     * line to out. Adds the runs to stats if it is not null. A failure in the
+     * reader or in any case is rethrown here after the threads are stopped.
+     */
+    public void run(BufferedReader br, PrintWriter out, DijkstraStats stats) throws Exception {
+        // bounded by the permits, so the queue itself never blocks the reader
+        BlockingQueue<Future<Result>> pending = new LinkedBlockingQueue<>();
+        Semaphore permits = new Semaphore(inFlight);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        boolean recordStats = stats != null;
+        Exception[] readError = new Exception[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (true) {
+                    permits.acquire();
+                    Main.Case c = Main.readCase(br);
+                    if (c == null) {
+                        break;
+                    }
+                    pending.put(pool.submit(() -> {
+                        DijkstraStats caseStats = recordStats ? new DijkstraStats() : null;
+                        return new Result(Main.solve(c, opt, caseStats), caseStats);
+                    }));
+                }
+            } catch (InterruptedException e) {
+                // the writer gave up
+                return;
+            } catch (Exception e) {
+                readError[0] = e;
+            }
+            try {
+                pending.put(END);
+            } catch (InterruptedException e) {
+                // the writer gave up
+            }
+        }, "case-reader");
+        // may be blocked reading the input when the writer gives up
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            for (Future<Result> f; (f = pending.take()) != END; ) {
+                Result r;
+                try {
+                    r = f.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+                out.println(r.answer == Main.INF ? -1 : r.answer);
+                if (recordStats) {
+                    stats.add(r.stats);
+                }
+                permits.release();
+            }
+            // END was queued after the reader's last write to readError
+            if (readError[0] != null) {
+                throw readError[0];
+            }
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+    }
+}
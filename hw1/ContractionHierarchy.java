@@ -0,0 +1,609 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Contraction hierarchy for point-to-point distance queries on a static graph.
+ *
+ * Preprocessing contracts the vertices one at a time, cheapest first by
+ * twice the edge difference (shortcuts added minus edges removed) plus the
+ * number of contracted neighbours and the vertex's level, re-evaluated
+ * lazily when it reaches the top of the queue. Contracting v adds a shortcut
+ * u -> x for every u -> v -> x whose length a bounded witness search around v
+ * cannot beat. rank[v] is v's position in that order.
+ *
+ * The result is two CSR graphs that only go up in rank: the upward edges for
+ * the forward search from S, and the downward edges stored reversed for the
+ * backward search from D. A query runs both searches, skips (stalls) vertices
+ * reached more cheaply from above, and stops each search once its queue
+ * minimum reaches the best meeting distance, so it only touches a small cone
+ * above S and D.
+ *
+ * The index can be written to and read from a file (write / read /
+ * loadOrBuild); it records a hash of the graph it was built from so a stale
+ * index is rebuilt. Queries go through Query objects, one per thread.
+ */
+public class ContractionHierarchy {
+
+    static final int INF = Main.INF;
+
+    private static final int MAGIC = 0x43484958;
+    private static final int VERSION = 1;
+
+    // a witness search gives up (and the shortcut is added) after settling this many vertices;
+    // priorities only need an estimate, so simulated contractions search less
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int SIMULATE_SETTLE_LIMIT = 50;
+
+    final int N;
+    final long graphHash;
+    final int[] rank;
+    final int[] upOffsets;
+    final int[] upTargets;
+    final int[] upWeights;
+    final int[] downOffsets;
+    final int[] downTargets;
+    final int[] downWeights;
+
+    private ContractionHierarchy(int N, long graphHash, int[] rank,
+                                 int[] upOffsets, int[] upTargets, int[] upWeights,
+                                 int[] downOffsets, int[] downTargets, int[] downWeights) {
+        this.N = N;
+        this.graphHash = graphHash;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.downOffsets = downOffsets;
+        this.downTargets = downTargets;
+        this.downWeights = downWeights;
+    }
+
+    // number of edges in the hierarchy, shortcuts included
+    public int getEdgeCount() {
+        return upTargets.length + downTargets.length;
+    }
+
+    /**
+     * Hash of N and every edge of g, stored in the index to detect a stale file.
+     */
+    static long hash(CsrGraph g) {
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ g.N) * 0x100000001b3L;
+        h = (h ^ g.M) * 0x100000001b3L;
+        for (int e = 0; e < g.M; e++) {
+            h = (h ^ g.sources[e]) * 0x100000001b3L;
+            h = (h ^ g.targets[e]) * 0x100000001b3L;
+            h = (h ^ g.weights[e]) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    public static ContractionHierarchy build(CsrGraph g) {
+        return new Builder(g).run();
+    }
+
+    /**
+     * Reads the index from file if it exists and was built from g, otherwise
+     * builds it and writes it there. The file only saves the build: one that
+     * cannot be read is rebuilt and one that cannot be written costs a warning
+     * on stderr.
+     */
+    public static ContractionHierarchy loadOrBuild(CsrGraph g, File file) {
+        long h = hash(g);
+        if (file.exists()) {
+            try {
+                ContractionHierarchy ch = read(file);
+                if (ch != null && ch.N == g.N && ch.graphHash == h) {
+                    return ch;
+                }
+            } catch (IOException e) {
+                System.err.println("warning: ignoring unreadable index " + file + ": " + e);
+            }
+        }
+        ContractionHierarchy ch = build(g);
+        try {
+            ch.store(file);
+        } catch (IOException e) {
+            System.err.println("warning: not saving the index: " + e.getMessage());
+        }
+        return ch;
+    }
+
+    // write, aside and renamed, so an interrupted run never leaves half a file
+    private void store(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            write(tmp);
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("cannot rename " + tmp + " to " + file);
+                }
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(N);
+            out.writeLong(graphHash);
+            writeArray(out, rank);
+            writeArray(out, upOffsets);
+            writeArray(out, upTargets);
+            writeArray(out, upWeights);
+            writeArray(out, downOffsets);
+            writeArray(out, downTargets);
+            writeArray(out, downWeights);
+        }
+    }
+
+    // null if the file is not an index of this version
+    public static ContractionHierarchy read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int N = in.readInt();
+            long graphHash = in.readLong();
+            return new ContractionHierarchy(N, graphHash, readArray(in),
+                    readArray(in), readArray(in), readArray(in),
+                    readArray(in), readArray(in), readArray(in));
+        }
+    }
+
+    private static void writeArray(DataOutputStream out, int[] a) throws IOException {
+        out.writeInt(a.length);
+        for (int x : a) {
+            out.writeInt(x);
+        }
+    }
+
+    private static int[] readArray(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            throw new IOException("corrupt index: array length " + n);
+        }
+        int[] a = new int[n];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = in.readInt();
+        }
+        return a;
+    }
+
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * Per-thread query state: the two upward searches, reset between queries
+     * through their touched lists.
+     */
+    public class Query {
+        private final int[] distF = new int[N];
+        private final int[] distB = new int[N];
+        private final MinHeapPriorityQueue forward = new MinHeapPriorityQueue(N);
+        private final MinHeapPriorityQueue backward = new MinHeapPriorityQueue(N);
+        private final IntList touchedF = new IntList();
+        private final IntList touchedB = new IntList();
+        private int settled;
+
+        Query() {
+            Arrays.fill(distF, INF);
+            Arrays.fill(distB, INF);
+        }
+
+        /**
+         * Shortest S -> D distance, INF if D is unreachable.
+         */
+        public int distance(int S, int D) {
+            reset();
+            distF[S] = 0;
+            touchedF.add(S);
+            forward.Insert(S, 0);
+            distB[D] = 0;
+            touchedB.add(D);
+            backward.Insert(D, 0);
+
+            int best = INF;
+            while (true) {
+                boolean goF = !forward.isEmpty() && forward.FindMinPriority() < best;
+                boolean goB = !backward.isEmpty() && backward.FindMinPriority() < best;
+                if (!goF && !goB) break;
+                if (goF && (!goB || forward.getSize() <= backward.getSize())) {
+                    best = step(forward, distF, touchedF, distB, upOffsets, upTargets, upWeights,
+                                downOffsets, downTargets, downWeights, best);
+                } else {
+                    best = step(backward, distB, touchedB, distF, downOffsets, downTargets, downWeights,
+                                upOffsets, upTargets, upWeights, best);
+                }
+            }
+            return best;
+        }
+
+        // vertices settled by the last query
+        public int getSettled() {
+            return settled;
+        }
+
+        /*
+         * Settle one vertex of one search and return the updated best. The
+         * in* arrays are the edges from higher vertices into u in this
+         * search's direction: if one of them gives a shorter way to u, u's
+         * distance is not exact and u is stalled (its edges are not relaxed).
+         */
+        private int step(MinHeapPriorityQueue pq, int[] dist, IntList touched, int[] other,
+                         int[] offsets, int[] targets, int[] weights,
+                         int[] inOffsets, int[] inTargets, int[] inWeights, int best) {
+            int u = pq.ExtractMin();
+            settled++;
+            if (other[u] != INF) {
+                best = Math.min(best, dist[u] + other[u]);
+            }
+            for (int e = inOffsets[u], end = inOffsets[u + 1]; e < end; e++) {
+                int x = inTargets[e];
+                if (dist[x] != INF && dist[x] + inWeights[e] < dist[u]) {
+                    return best;
+                }
+            }
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                int v = targets[e];
+                int alt = dist[u] + weights[e];
+                if (alt < dist[v]) {
+                    if (dist[v] == INF) {
+                        touched.add(v);
+                    }
+                    dist[v] = alt;
+                    pq.InsertOrDecrease(v, alt);
+                }
+            }
+            return best;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedF.size; i++) {
+                distF[touchedF.data[i]] = INF;
+            }
+            for (int i = 0; i < touchedB.size; i++) {
+                distB[touchedB.data[i]] = INF;
+            }
+            touchedF.clear();
+            touchedB.clear();
+            forward.StartHeap(N);
+            backward.StartHeap(N);
+            settled = 0;
+        }
+    }
+
+    /**
+     * Contraction state: a mutable adjacency over the vertices not yet
+     * contracted (out and in lists, one entry per neighbour with the smallest
+     * weight) that gains shortcuts as vertices are contracted. Contracting v
+     * moves its remaining edges into up[v] / down[v], which all lead to
+     * higher ranks, and drops v from its neighbours' lists.
+     */
+    private static class Builder {
+        final CsrGraph g;
+        final int N;
+        final IntList[] outTo, outW, inFrom, inW;
+        final IntList[] upTo, upW, downTo, downW;
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+        // 1 + the highest level among contracted neighbours, keeps the hierarchy shallow
+        final int[] level;
+
+        // witness search
+        final int[] wDist;
+        final IntList wTouched = new IntList();
+        // wTarget[x] == wStamp marks the out-neighbours the current search has to reach
+        final int[] wTarget;
+        int wStamp;
+        final MinHeapPriorityQueue wpq;
+
+        Builder(CsrGraph g) {
+            this.g = g;
+            N = g.N;
+            outTo = lists(N);
+            outW = lists(N);
+            inFrom = lists(N);
+            inW = lists(N);
+            upTo = lists(N);
+            upW = lists(N);
+            downTo = lists(N);
+            downW = lists(N);
+            for (int e = 0; e < g.M; e++) {
+                addEdge(g.sources[e], g.targets[e], g.weights[e]);
+            }
+            contracted = new boolean[N];
+            contractedNeighbours = new int[N];
+            level = new int[N];
+            wDist = new int[N];
+            Arrays.fill(wDist, INF);
+            wTarget = new int[N];
+            wpq = new MinHeapPriorityQueue(N);
+        }
+
+        private static IntList[] lists(int n) {
+            IntList[] a = new IntList[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = new IntList();
+            }
+            return a;
+        }
+
+        ContractionHierarchy run() {
+            int[] rank = new int[N];
+            MinHeapPriorityQueue order = new MinHeapPriorityQueue(N);
+            for (int v = 0; v < N; v++) {
+                order.Insert(v, priority(v));
+            }
+
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.ExtractMin();
+                // lazy update: if v got more expensive than the next candidate, put it back
+                int p = priority(v);
+                if (!order.isEmpty() && p > order.FindMinPriority()) {
+                    order.Insert(v, p);
+                    continue;
+                }
+                contract(v, false);
+                rank[v] = next++;
+                detach(v);
+            }
+            return assemble(rank);
+        }
+
+        private int priority(int v) {
+            int degree = outTo[v].size + inFrom[v].size;
+            return 2 * (contract(v, true) - degree) + contractedNeighbours[v] + level[v];
+        }
+
+        // adds (or with simulate only counts) the shortcuts contracting v needs
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            IntList from = inFrom[v];
+            IntList fromW = inW[v];
+            IntList to = outTo[v];
+            IntList toW = outW[v];
+
+            for (int i = 0; i < from.size; i++) {
+                int u = from.data[i];
+                int wu = fromW.data[i];
+
+                int maxOut = -1;
+                int targets = 0;
+                wStamp++;
+                for (int j = 0; j < to.size; j++) {
+                    if (to.data[j] == u) continue;
+                    maxOut = Math.max(maxOut, toW.data[j]);
+                    wTarget[to.data[j]] = wStamp;
+                    targets++;
+                }
+                if (targets == 0) continue;
+
+                witnessSearch(u, v, wu + maxOut, targets, simulate ? SIMULATE_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+                for (int j = 0; j < to.size; j++) {
+                    int x = to.data[j];
+                    if (x == u) continue;
+                    int via = wu + toW.data[j];
+                    if (wDist[x] > via) {
+                        shortcuts++;
+                        if (!simulate) {
+                            addEdge(u, x, via);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        // move v's edges into the hierarchy and out of its neighbours' lists
+        private void detach(int v) {
+            contracted[v] = true;
+            for (int i = 0; i < outTo[v].size; i++) {
+                int x = outTo[v].data[i];
+                upTo[v].add(x);
+                upW[v].add(outW[v].data[i]);
+                remove(inFrom[x], inW[x], v);
+                touchNeighbour(v, x);
+            }
+            for (int i = 0; i < inFrom[v].size; i++) {
+                int u = inFrom[v].data[i];
+                downTo[v].add(u);
+                downW[v].add(inW[v].data[i]);
+                remove(outTo[u], outW[u], v);
+                touchNeighbour(v, u);
+            }
+            outTo[v] = outW[v] = inFrom[v] = inW[v] = null;
+        }
+
+        private void touchNeighbour(int v, int x) {
+            contractedNeighbours[x]++;
+            level[x] = Math.max(level[x], level[v] + 1);
+        }
+
+        private static void remove(IntList keys, IntList values, int key) {
+            for (int i = 0; i < keys.size; i++) {
+                if (keys.data[i] == key) {
+                    keys.size--;
+                    values.size--;
+                    keys.data[i] = keys.data[keys.size];
+                    values.data[i] = values.data[values.size];
+                    return;
+                }
+            }
+        }
+
+        // bounded Dijkstra from u that avoids v, results in wDist; stops early once all targets are settled
+        private void witnessSearch(int u, int v, int limit, int targets, int maxSettled) {
+            for (int i = 0; i < wTouched.size; i++) {
+                wDist[wTouched.data[i]] = INF;
+            }
+            wTouched.clear();
+            wpq.StartHeap(N);
+
+            wDist[u] = 0;
+            wTouched.add(u);
+            wpq.Insert(u, 0);
+            int settled = 0;
+            while (!wpq.isEmpty() && wpq.FindMinPriority() <= limit && settled < maxSettled) {
+                int a = wpq.ExtractMin();
+                settled++;
+                if (wTarget[a] == wStamp && --targets == 0) break;
+                IntList to = outTo[a];
+                IntList toW = outW[a];
+                for (int j = 0; j < to.size; j++) {
+                    int b = to.data[j];
+                    if (b == v) continue;
+                    int alt = wDist[a] + toW.data[j];
+                    if (alt < wDist[b]) {
+                        if (wDist[b] == INF) {
+                            wTouched.add(b);
+                        }
+                        wDist[b] = alt;
+                        wpq.InsertOrDecrease(b, alt);
+                    }
+                }
+            }
+        }
+
+        // add u -> x, or lower its weight if it is already there
+        private void addEdge(int u, int x, int w) {
+            if (u == x) return;
+            IntList to = outTo[u];
+            for (int i = 0; i < to.size; i++) {
+                if (to.data[i] == x) {
+                    if (w < outW[u].data[i]) {
+                        outW[u].data[i] = w;
+                        IntList from = inFrom[x];
+                        for (int k = 0; k < from.size; k++) {
+                            if (from.data[k] == u) {
+                                inW[x].data[k] = w;
+                                break;
+                            }
+                        }
+                    }
+                    return;
+                }
+            }
+            to.add(x);
+            outW[u].add(w);
+            inFrom[x].add(u);
+            inW[x].add(w);
+        }
+
+        private ContractionHierarchy assemble(int[] rank) {
+            int[] upOffsets = new int[N + 1];
+            int[] downOffsets = new int[N + 1];
+            for (int v = 0; v < N; v++) {
+                upOffsets[v + 1] = upOffsets[v] + upTo[v].size;
+                downOffsets[v + 1] = downOffsets[v] + downTo[v].size;
+            }
+            int[] upTargets = new int[upOffsets[N]];
+            int[] upWeights = new int[upOffsets[N]];
+            int[] downTargets = new int[downOffsets[N]];
+            int[] downWeights = new int[downOffsets[N]];
+            for (int v = 0; v < N; v++) {
+                System.arraycopy(upTo[v].data, 0, upTargets, upOffsets[v], upTo[v].size);
+                System.arraycopy(upW[v].data, 0, upWeights, upOffsets[v], upW[v].size);
+                System.arraycopy(downTo[v].data, 0, downTargets, downOffsets[v], downTo[v].size);
+                System.arraycopy(downW[v].data, 0, downWeights, downOffsets[v], downW[v].size);
+            }
+            return new ContractionHierarchy(N, hash(g), rank, upOffsets, upTargets, upWeights,
+                    downOffsets, downTargets, downWeights);
+        }
+    }
+
+    /**
+     * Query loop. Reads the first graph of graphFile (Main format), loads the
+     * index from --index (default graphFile.ch) or builds and saves it, then
+     * answers "S D" lines with the distance (-1 if unreachable), either on
+     * stdin/stdout or, with --port, for every client connecting to that port
+     * (one thread and one Query per connection).
+     */
+    public static void main(String[] args) throws Exception {
+        String graphFile = null;
+        String indexFile = null;
+        int port = -1;
+        for (String arg : args) {
+            if (arg.startsWith("--index=")) {
+                indexFile = arg.substring("--index=".length());
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (!arg.startsWith("--") && graphFile == null) {
+                graphFile = arg;
+            } else {
+                throw new IllegalArgumentException("usage: java ContractionHierarchy graphFile [--index=file] [--port=p]");
+            }
+        }
+        if (graphFile == null) {
+            throw new IllegalArgumentException("usage: java ContractionHierarchy graphFile [--index=file] [--port=p]");
+        }
+        if (indexFile == null) {
+            indexFile = graphFile + ".ch";
+        }
+
+        CsrGraph g;
+        try (BufferedReader br = new BufferedReader(new FileReader(graphFile))) {
+            StringTokenizer st = new StringTokenizer(br.readLine());
+            int N = Integer.parseInt(st.nextToken());
+            int M = Integer.parseInt(st.nextToken());
+            br.readLine();
+            g = CsrGraph.read(br, N, M);
+        }
+
+        long start = System.nanoTime();
+        ContractionHierarchy ch = loadOrBuild(g, new File(indexFile));
+        System.err.printf("index ready: %d vertices, %d edges (%d in the graph) in %.1f ms%n",
+                ch.N, ch.getEdgeCount(), g.M, (System.nanoTime() - start) / 1e6);
+
+        if (port < 0) {
+            serve(ch, new BufferedReader(new InputStreamReader(System.in)),
+                  new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out))));
+            return;
+        }
+        try (java.net.ServerSocket server = new java.net.ServerSocket(port)) {
+            System.err.println("listening on port " + server.getLocalPort());
+            while (true) {
+                java.net.Socket client = server.accept();
+                Thread t = new Thread(() -> {
+                    try (java.net.Socket c = client) {
+                        serve(ch, new BufferedReader(new InputStreamReader(c.getInputStream())),
+                              new PrintWriter(new BufferedWriter(new OutputStreamWriter(c.getOutputStream()))));
+                    } catch (IOException e) {
+                        System.err.println("connection closed: " + e.getMessage());
+                    }
+                });
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+    }
+
+    // answer "S D" lines until EOF, flushing whenever no further input is already buffered
+    private static void serve(ContractionHierarchy ch, BufferedReader in, PrintWriter out) throws IOException {
+        Query query = ch.newQuery();
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            StringTokenizer st = new StringTokenizer(line);
+            if (!st.hasMoreTokens()) continue;
+            int S = Integer.parseInt(st.nextToken());
+            int D = Integer.parseInt(st.nextToken());
+            if (S < 0 || S >= ch.N || D < 0 || D >= ch.N) {
+                out.println("error: vertex out of range");
+            } else {
+                int d = query.distance(S, D);
+                out.println(d == INF ? -1 : d);
+            }
+            if (!in.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Directed weighted graph in compressed sparse row form.
+ *
+ * The out-edges of u are the edge ids offsets[u] .. offsets[u+1]-1;
+ * edge e goes sources[e] -> targets[e] with weight weights[e]. Edge ids are
+ * CSR positions, so a set of edges (e.g. the removed ones) is just a bitset
+ * over 0..M-1, see newEdgeSet / isSet / set.
+ *
+ * reverse() builds the transposed graph; its forwardIds[e] is the id of the
+ * same edge in the original graph, so both can share one edge set.
+ */
+public class CsrGraph {
+
+    final int N;
+    final int M;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+    final int[] sources;
+    final int maxWeight;
+    // reverse graphs only: edge id in the graph this was reversed from, else null
+    final int[] forwardIds;
+
+    /**
+     * Builds the CSR arrays from an edge list (from[i] -> to[i], weight w[i])
+     * with a counting sort on the source vertex. Edges keep their input order
+     * within each source.
+     */
+    CsrGraph(int N, int M, int[] from, int[] to, int[] w) {
+        this(N, M, from, to, w, false);
+    }
+
+    private CsrGraph(int N, int M, int[] from, int[] to, int[] w, boolean keepIds) {
+        this.N = N;
+        this.M = M;
+        offsets = new int[N + 1];
+        targets = new int[M];
+        weights = new int[M];
+        sources = new int[M];
+        forwardIds = keepIds ? new int[M] : null;
+
+        for (int i = 0; i < M; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int u = 0; u < N; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int[] fill = Arrays.copyOf(offsets, N);
+        int max = 0;
+        for (int i = 0; i < M; i++) {
+            int e = fill[from[i]]++;
+            sources[e] = from[i];
+            targets[e] = to[i];
+            weights[e] = w[i];
+            if (keepIds) {
+                forwardIds[e] = i;
+            }
+            max = Math.max(max, w[i]);
+        }
+        maxWeight = max;
+    }
+
+    // same vertices, every edge u -> v turned into v -> u
+    CsrGraph reverse() {
+        return new CsrGraph(N, M, targets, sources, weights, true);
+    }
+
+    /**
+     * Reads M edge lines "U V P" (the format Main reads after "N M" and "S D").
+     */
+    static CsrGraph read(BufferedReader br, int N, int M) throws IOException {
+        int[] from = new int[M];
+        int[] to = new int[M];
+        int[] w = new int[M];
+        for (int i = 0; i < M; i++) {
+            StringTokenizer st = new StringTokenizer(br.readLine());
+            from[i] = Integer.parseInt(st.nextToken());
+            to[i] = Integer.parseInt(st.nextToken());
+            w[i] = Integer.parseInt(st.nextToken());
+        }
+        return new CsrGraph(N, M, from, to, w);
+    }
+
+    // edge sets: one bit per edge id
+    long[] newEdgeSet() {
+        return new long[(M + 63) >>> 6];
+    }
+
+    static boolean isSet(long[] bits, int e) {
+        return (bits[e >>> 6] & (1L << e)) != 0;
+    }
+
+    static void set(long[] bits, int e) {
+        bits[e >>> 6] |= 1L << e;
+    }
+}
@@ -0,0 +1,196 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel delta-stepping single-source shortest paths (Meyer & Sanders).
+ *
+ * Vertices are kept in buckets of width delta by tentative distance. Bucket i
+ * is drained in rounds: every vertex of the current round relaxes its light
+ * edges (weight <= delta) in parallel, and whatever lands back in bucket i
+ * forms the next round. Once bucket i stays empty, the heavy edges of every
+ * vertex it held are relaxed once, also in parallel.
+ *
+ * Relaxations from different threads meet on the shared int[] dist through a
+ * compare-and-set min loop, so the result is the same dist[] Main.dijkstra
+ * computes (INF for unreachable vertices). Stale bucket entries (a vertex
+ * whose distance dropped into a lower bucket later) are skipped.
+ */
+public class DeltaStepping {
+
+    static final int INF = Main.INF;
+
+    private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // rounds smaller than this are relaxed on the calling thread
+    private static final int GRAIN = 1024;
+
+    private final CsrGraph g;
+    private final int delta;
+    private final ForkJoinPool pool;
+
+    /**
+     * delta <= 0 picks maxWeight / average out-degree, the usual choice for
+     * random weights. Buckets are a plain list indexed by dist / delta, so
+     * delta should not be tiny next to the longest distance.
+     */
+    public DeltaStepping(CsrGraph g, int delta, ForkJoinPool pool) {
+        this.g = g;
+        if (delta <= 0) {
+            long avgDegree = Math.max(1, g.M / Math.max(1, g.N));
+            delta = (int) Math.max(1, g.maxWeight / avgDegree);
+        }
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    /**
+     * Fills dist with the shortest distances from S, ignoring the edges in
+     * removed (an edge set of g, may be null).
+     */
+    public void run(int S, int[] dist, long[] removed) {
+        int N = g.N;
+        Arrays.fill(dist, INF);
+        dist[S] = 0;
+
+        // round in which a vertex was last relaxed, to drop duplicate entries
+        int[] seenRound = new int[N];
+        int round = 0;
+        // bucket in which a vertex last had its heavy edges queued
+        int[] heavyBucket = new int[N];
+        Arrays.fill(heavyBucket, -1);
+
+        List<IntList> buckets = new ArrayList<>();
+        bucket(buckets, 0).add(S);
+
+        IntList frontier = new IntList();
+        IntList settled = new IntList();
+
+        for (int i = 0; i < buckets.size(); i++) {
+            IntList bucket = buckets.get(i);
+            if (bucket == null) continue;
+            settled.clear();
+
+            int pos = 0;
+            while (pos < bucket.size) {
+                round++;
+                frontier.clear();
+                for (; pos < bucket.size; pos++) {
+                    int u = bucket.data[pos];
+                    if (dist[u] / delta != i || seenRound[u] == round) continue;
+                    seenRound[u] = round;
+                    frontier.add(u);
+                    if (heavyBucket[u] != i) {
+                        heavyBucket[u] = i;
+                        settled.add(u);
+                    }
+                }
+                relaxAll(frontier, dist, removed, true, buckets);
+            }
+            relaxAll(settled, dist, removed, false, buckets);
+            buckets.set(i, null);
+        }
+    }
+
+    // relax the light (or heavy) edges of every vertex in vertices, then bucket the improved targets
+    private void relaxAll(IntList vertices, int[] dist, long[] removed, boolean light, List<IntList> buckets) {
+        if (vertices.size == 0) return;
+
+        int chunks = (vertices.size + GRAIN - 1) / GRAIN;
+        IntList[] improved = new IntList[chunks];
+        if (chunks == 1) {
+            improved[0] = relaxRange(vertices.data, 0, vertices.size, dist, removed, light);
+        } else {
+            pool.invoke(new RelaxTask(vertices.data, 0, chunks, vertices.size, dist, removed, light, improved));
+        }
+
+        for (IntList list : improved) {
+            for (int k = 0; k < list.size; k++) {
+                int v = list.data[k];
+                bucket(buckets, dist[v] / delta).add(v);
+            }
+        }
+    }
+
+    private IntList relaxRange(int[] vertices, int from, int to, int[] dist, long[] removed, boolean light) {
+        IntList improved = new IntList();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] weights = g.weights;
+
+        for (int k = from; k < to; k++) {
+            int u = vertices[k];
+            int du = (int) DIST.getVolatile(dist, u);
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                int w = weights[e];
+                if ((w <= delta) != light) continue;
+                if (removed != null && CsrGraph.isSet(removed, e)) continue;
+                int v = targets[e];
+                int alt = du + w;
+                int old = (int) DIST.getVolatile(dist, v);
+                while (alt < old) {
+                    if (DIST.compareAndSet(dist, v, old, alt)) {
+                        improved.add(v);
+                        break;
+                    }
+                    old = (int) DIST.getVolatile(dist, v);
+                }
+            }
+        }
+        return improved;
+    }
+
+    // splits chunk indices [lo, hi) of the vertex array in halves until one chunk is left
+    private class RelaxTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] vertices;
+        private final int lo, hi, size;
+        private final int[] dist;
+        private final long[] removed;
+        private final boolean light;
+        private final IntList[] improved;
+
+        RelaxTask(int[] vertices, int lo, int hi, int size, int[] dist, long[] removed,
+                  boolean light, IntList[] improved) {
+            this.vertices = vertices;
+            this.lo = lo;
+            this.hi = hi;
+            this.size = size;
+            this.dist = dist;
+            this.removed = removed;
+            this.light = light;
+            this.improved = improved;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int from = lo * GRAIN;
+                improved[lo] = relaxRange(vertices, from, Math.min(from + GRAIN, size), dist, removed, light);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RelaxTask(vertices, lo, mid, size, dist, removed, light, improved),
+                      new RelaxTask(vertices, mid, hi, size, dist, removed, light, improved));
+        }
+    }
+
+    private static IntList bucket(List<IntList> buckets, int i) {
+        while (buckets.size() <= i) {
+            buckets.add(null);
+        }
+        IntList b = buckets.get(i);
+        if (b == null) {
+            b = new IntList();
+            buckets.set(i, b);
+        }
+        return b;
+    }
+}
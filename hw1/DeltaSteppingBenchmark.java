@@ -0,0 +1,73 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scaling benchmark for DeltaStepping at 1, 2, 4, 8 and 16 threads.
+ *
+ * Usage:
+ *   java DeltaSteppingBenchmark              - generated sparse graphs
+ *   java DeltaSteppingBenchmark input.txt    - every test case of a file in the Main input format
+ *
+ * Every run is checked against Main.dijkstra; the best of REPS runs is
+ * reported after WARMUP untimed runs, with the speed-up over one thread.
+ */
+public class DeltaSteppingBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int WARMUP = 2;
+    private static final int REPS = 3;
+
+    public static void main(String[] args) throws Exception {
+        List<HeapArityBenchmark.Graph> graphs = new ArrayList<>();
+        if (args.length > 0) {
+            try (BufferedReader br = new BufferedReader(new FileReader(args[0]))) {
+                graphs.addAll(HeapArityBenchmark.readGraphs(br));
+            }
+        } else {
+            Random rnd = new Random(42);
+            graphs.add(HeapArityBenchmark.randomGraph("sparse N=1000000 M=8000000", 1_000_000, 8_000_000, 1000, rnd));
+            graphs.add(HeapArityBenchmark.randomGraph("sparse N=2000000 M=8000000", 2_000_000, 8_000_000, 100, rnd));
+        }
+
+        System.out.printf("%-32s %8s %10s %8s%n", "graph", "threads", "best ms", "speedup");
+        for (HeapArityBenchmark.Graph bg : graphs) {
+            CsrGraph g = bg.g;
+            int[] expected = new int[g.N];
+            int[] dist = new int[g.N];
+
+            long dijkstraBest = Long.MAX_VALUE;
+            for (int i = 0; i < WARMUP + REPS; i++) {
+                long start = System.nanoTime();
+                Main.dijkstra(g, bg.S, expected, null, null, false, MinHeapPriorityQueue.DEFAULT_ARITY);
+                if (i >= WARMUP) {
+                    dijkstraBest = Math.min(dijkstraBest, System.nanoTime() - start);
+                }
+            }
+            System.out.printf("%-32s %8s %10.2f %8s%n", bg.name, "dijkstra", dijkstraBest / 1e6, "");
+
+            double single = 0;
+            for (int threads : THREADS) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                DeltaStepping ds = new DeltaStepping(g, 0, pool);
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < WARMUP + REPS; i++) {
+                    long start = System.nanoTime();
+                    ds.run(bg.S, dist, null);
+                    if (i >= WARMUP) {
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    if (!Arrays.equals(expected, dist)) {
+                        throw new IllegalStateException(bg.name + ": delta-stepping differs from dijkstra at "
+                                + threads + " threads");
+                    }
+                }
+                pool.shutdown();
+                if (threads == 1) {
+                    single = best;
+                }
+                System.out.printf("%-32s %8d %10.2f %8.2f%n", bg.name, threads, best / 1e6, single / best);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event committed by every Main.dijkstra run while a recording has it
+ * enabled, e.g.
+ *
+ *   java -XX:StartFlightRecording:filename=run.jfr Main < input.txt
+ *   jfr print --events hw1.Dijkstra run.jfr
+ *
+ * The fields are those of DijkstraStats for that one run; the heap fields
+ * stay 0 unless the queue was a MinHeapPriorityQueue.
+ */
+@Name("hw1.Dijkstra")
+@Label("Dijkstra")
+@Category("hw1")
+@Description("One Main.dijkstra run with its search and heap counters")
+class DijkstraEvent extends Event {
+
+    @Label("Source")
+    int source;
+
+    @Label("Target")
+    @Description("Vertex the run stops at, -1 for a full run")
+    int target;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Settled")
+    long settled;
+
+    @Label("Relaxed Edges")
+    long relaxed;
+
+    @Label("Improved Distances")
+    long improved;
+
+    @Label("Stale Pops")
+    long stalePops;
+
+    @Label("Removed Edges Skipped")
+    long removedSkipped;
+
+    @Label("Heap Swaps")
+    long heapSwaps;
+
+    @Label("Heap Sift-Up Levels")
+    long heapSiftUpLevels;
+
+    @Label("Heap Sift-Down Levels")
+    long heapSiftDownLevels;
+
+    @Label("Heap Priority Decreases")
+    long heapChangeUp;
+
+    @Label("Heap Priority Increases")
+    long heapChangeDown;
+}
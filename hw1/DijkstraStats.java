@@ -0,0 +1,57 @@
+/**
+ * Counters of Main.dijkstra runs; pass one to the dijkstra overload that
+ * takes it and every run adds its numbers (see add), so one instance can
+ * summarize a single query or a whole input file.
+ *
+ *   settled         vertices taken off the queue and expanded
+ *   relaxed         out-edges of settled vertices looked at (removed ones excluded)
+ *   improved        relaxations that lowered a tentative distance
+ *   stalePops       pops of vertices that were already settled
+ *   removedSkipped  out-edges skipped because they are in the removed set
+ *   heap            MinHeapPriorityQueue counters, when the run used that queue
+ */
+public class DijkstraStats {
+
+    long runs;
+    long nanos;
+    long settled;
+    long relaxed;
+    long improved;
+    long stalePops;
+    long removedSkipped;
+    final HeapStats heap = new HeapStats();
+
+    public long getRuns()           { return runs; }
+    public long getNanos()          { return nanos; }
+    public long getSettled()        { return settled; }
+    public long getRelaxed()        { return relaxed; }
+    public long getImproved()       { return improved; }
+    public long getStalePops()      { return stalePops; }
+    public long getRemovedSkipped() { return removedSkipped; }
+    public HeapStats getHeap()      { return heap; }
+
+    public void add(DijkstraStats other) {
+        runs += other.runs;
+        nanos += other.nanos;
+        settled += other.settled;
+        relaxed += other.relaxed;
+        improved += other.improved;
+        stalePops += other.stalePops;
+        removedSkipped += other.removedSkipped;
+        heap.add(other.heap);
+    }
+
+    public void reset() {
+        runs = nanos = 0;
+        settled = relaxed = improved = 0;
+        stalePops = removedSkipped = 0;
+        heap.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("dijkstra: runs=%d time=%.3f ms settled=%d relaxed=%d improved=%d"
+                        + " stalePops=%d removedSkipped=%d%nheap: %s",
+                runs, nanos / 1e6, settled, relaxed, improved, stalePops, removedSkipped, heap);
+    }
+}
@@ -0,0 +1,298 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Many-to-many distances: table[i][j] = d(sources[i], targets[j]), INF if
+ * targets[j] is unreachable from sources[i] (e.g. depot-to-customer tables).
+ *
+ * Two strategies, picked by compute():
+ *
+ *  - One Dijkstra per source. Each pool thread takes sources off a shared
+ *    counter and keeps one Search (dist array, heap, touched list) for all
+ *    of them, resetting only what the previous source touched, and stops a
+ *    source once every target is settled.
+ *  - Blocked Floyd-Warshall over an N x N matrix, for small dense graphs
+ *    asked for many sources. The matrix is cut into BLOCK x BLOCK tiles; for
+ *    each diagonal tile k the tile itself, then its row and column, then
+ *    every other tile are updated, and each of those phases is spread over
+ *    the pool. A tile row of the operands is a few KB, so the inner loop
+ *    runs out of L1 instead of streaming the whole matrix N times.
+ *
+ * preferFloydWarshall compares N^3 with sources * (M + N log N), scaled by
+ * FLOYD_SPEEDUP for the much cheaper inner loop, and never picks
+ * Floyd-Warshall above FLOYD_MAX_VERTICES (an N^2 int matrix).
+ *
+ * Usage: java DistanceMatrix [--threads=T] [--dijkstra|--floyd] < input
+ * where input is "N M", M edge lines "U V P", then a line of source ids and
+ * a line of target ids ("*" or a missing line for all vertices). Prints one
+ * line of target distances per source (-1 for none).
+ */
+public class DistanceMatrix {
+
+    static final int INF = Main.INF;
+
+    // tile side of the blocked Floyd-Warshall: 3 tiles of ints fit in a 64 KB L1/L2 slice
+    static final int BLOCK = 64;
+    static final int FLOYD_MAX_VERTICES = 4096;
+    // how many Floyd-Warshall inner steps cost about as much as one Dijkstra relaxation
+    static final int FLOYD_SPEEDUP = 16;
+
+    private final CsrGraph g;
+    private final ForkJoinPool pool;
+
+    public DistanceMatrix(CsrGraph g, ForkJoinPool pool) {
+        this.g = g;
+        this.pool = pool;
+    }
+
+    /**
+     * The distance table, by whichever strategy preferFloydWarshall picks.
+     */
+    public int[][] compute(int[] sources, int[] targets) throws Exception {
+        if (preferFloydWarshall(g, sources.length)) {
+            return floydWarshall(sources, targets);
+        }
+        return dijkstra(sources, targets);
+    }
+
+    static boolean preferFloydWarshall(CsrGraph g, int sourceCount) {
+        if (g.N > FLOYD_MAX_VERTICES) {
+            return false;
+        }
+        long n = g.N;
+        long log = 64 - Long.numberOfLeadingZeros(Math.max(1, n));
+        double dijkstraCost = (double) sourceCount * (g.M + n * log);
+        return (double) n * n * n <= dijkstraCost * FLOYD_SPEEDUP;
+    }
+
+    /**
+     * One Dijkstra per source, spread over the pool with per-thread buffers.
+     */
+    public int[][] dijkstra(int[] sources, int[] targets) throws Exception {
+        int[][] table = new int[sources.length][];
+        boolean[] isTarget = new boolean[g.N];
+        int distinctTargets = 0;
+        for (int t : targets) {
+            checkVertex(t);
+            if (!isTarget[t]) {
+                isTarget[t] = true;
+                distinctTargets++;
+            }
+        }
+        for (int s : sources) {
+            checkVertex(s);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.max(1, Math.min(pool.getParallelism(), sources.length));
+        int wanted = distinctTargets;
+        List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            running.add(pool.submit(() -> {
+                Search search = new Search();
+                for (int i; (i = next.getAndIncrement()) < sources.length; ) {
+                    search.run(sources[i], isTarget, wanted);
+                    int[] row = new int[targets.length];
+                    for (int j = 0; j < targets.length; j++) {
+                        row[j] = search.dist[targets[j]];
+                    }
+                    table[i] = row;
+                }
+            }));
+        }
+        for (Future<?> f : running) {
+            f.get();
+        }
+        return table;
+    }
+
+    // one thread's Dijkstra state, reused from source to source
+    private final class Search {
+        final int[] dist = new int[g.N];
+        final MinHeapPriorityQueue pq = new MinHeapPriorityQueue(g.N);
+        final boolean[] settled = new boolean[g.N];
+        final IntList touched = new IntList();
+
+        Search() {
+            Arrays.fill(dist, INF);
+        }
+
+        // dist[] from S, exact at least for every target; stops once all wanted targets are settled
+        void run(int S, boolean[] isTarget, int wanted) {
+            for (int k = 0; k < touched.size; k++) {
+                int v = touched.data[k];
+                dist[v] = INF;
+                settled[v] = false;
+            }
+            touched.clear();
+            pq.StartHeap(g.N);
+
+            dist[S] = 0;
+            touched.add(S);
+            pq.Insert(S, 0);
+            int found = 0;
+            while (!pq.isEmpty() && found < wanted) {
+                int u = pq.ExtractMin();
+                settled[u] = true;
+                if (isTarget[u]) found++;
+                for (int e = g.offsets[u], end = g.offsets[u + 1]; e < end; e++) {
+                    int v = g.targets[e];
+                    if (settled[v]) continue;
+                    int alt = dist[u] + g.weights[e];
+                    if (alt < dist[v]) {
+                        if (dist[v] == INF) touched.add(v);
+                        dist[v] = alt;
+                        pq.InsertOrDecrease(v, alt);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * All-pairs by blocked Floyd-Warshall, then the requested rows and columns.
+     */
+    public int[][] floydWarshall(int[] sources, int[] targets) throws Exception {
+        for (int s : sources) checkVertex(s);
+        for (int t : targets) checkVertex(t);
+
+        int n = g.N;
+        int[] d = new int[n * n];
+        Arrays.fill(d, INF);
+        for (int v = 0; v < n; v++) {
+            d[v * n + v] = 0;
+        }
+        for (int e = 0; e < g.M; e++) {
+            int idx = g.sources[e] * n + g.targets[e];
+            d[idx] = Math.min(d[idx], g.weights[e]);
+        }
+
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        for (int k = 0; k < blocks; k++) {
+            int kb = k;
+            // 1. the diagonal tile depends only on itself
+            relaxTile(d, n, kb, kb, kb);
+            // 2. row kb and column kb depend on the diagonal tile
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(b -> {
+                if (b != kb) {
+                    relaxTile(d, n, kb, b, kb);
+                    relaxTile(d, n, b, kb, kb);
+                }
+            })).get();
+            // 3. every other tile depends on its row and column tiles
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(i -> {
+                if (i == kb) return;
+                for (int j = 0; j < blocks; j++) {
+                    if (j != kb) relaxTile(d, n, i, j, kb);
+                }
+            })).get();
+        }
+
+        int[][] table = new int[sources.length][targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            int base = sources[i] * n;
+            for (int j = 0; j < targets.length; j++) {
+                table[i][j] = d[base + targets[j]];
+            }
+        }
+        return table;
+    }
+
+    // d[i][j] = min(d[i][j], d[i][k] + d[k][j]) for i in tile row bi, j in tile column bj, k in tile kb
+    private static void relaxTile(int[] d, int n, int bi, int bj, int kb) {
+        int iEnd = Math.min(n, (bi + 1) * BLOCK);
+        int jStart = bj * BLOCK;
+        int jEnd = Math.min(n, jStart + BLOCK);
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = bi * BLOCK; i < iEnd; i++) {
+                int iRow = i * n;
+                int dik = d[iRow + k];
+                if (dik >= INF) continue;
+                for (int j = jStart; j < jEnd; j++) {
+                    int alt = dik + d[kRow + j];
+                    if (alt < d[iRow + j]) {
+                        d[iRow + j] = alt;
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= g.N) {
+            throw new IllegalArgumentException("Vertex out of range: " + v);
+        }
+    }
+
+    // ids on a line, or every vertex for "*" or no line
+    private static int[] readVertices(String line, int N) {
+        if (line == null || line.trim().equals("*")) {
+            int[] all = new int[N];
+            for (int v = 0; v < N; v++) all[v] = v;
+            return all;
+        }
+        StringTokenizer st = new StringTokenizer(line);
+        int[] ids = new int[st.countTokens()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Integer.parseInt(st.nextToken());
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String mode = "auto";
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.equals("--dijkstra") || arg.equals("--floyd")) {
+                mode = arg.substring(2);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+        StringTokenizer st = new StringTokenizer(br.readLine());
+        int N = Integer.parseInt(st.nextToken());
+        int M = Integer.parseInt(st.nextToken());
+        CsrGraph g = CsrGraph.read(br, N, M);
+        int[] sources = readVertices(br.readLine(), N);
+        int[] targets = readVertices(br.readLine(), N);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            DistanceMatrix dm = new DistanceMatrix(g, pool);
+            long start = System.nanoTime();
+            int[][] table;
+            if (mode.equals("dijkstra")) {
+                table = dm.dijkstra(sources, targets);
+            } else if (mode.equals("floyd")) {
+                table = dm.floydWarshall(sources, targets);
+            } else {
+                mode = preferFloydWarshall(g, sources.length) ? "floyd" : "dijkstra";
+                table = dm.compute(sources, targets);
+            }
+            long nanos = System.nanoTime() - start;
+
+            StringBuilder out = new StringBuilder();
+            for (int[] row : table) {
+                for (int j = 0; j < row.length; j++) {
+                    if (j > 0) out.append(' ');
+                    out.append(row[j] == INF ? -1 : row[j]);
+                }
+                out.append('\n');
+            }
+            System.out.print(out);
+            System.err.printf("%d x %d table by %s in %.1f ms%n", sources.length, targets.length, mode, nanos / 1e6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
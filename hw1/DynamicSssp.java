@@ -0,0 +1,279 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Single-source shortest paths from a fixed source S that are kept up to
+ * date under edge changes, instead of rerunning Dijkstra over the whole
+ * graph after each batch.
+ *
+ * Changes (removeEdge, setWeight) are queued and applied by repair():
+ *
+ *  1. Every vertex whose shortest-path tree edge was deleted or got heavier
+ *     loses its distance, and so does its whole subtree. Vertices outside
+ *     those subtrees keep a tree path that did not change, and since weights
+ *     only went up, their distances are still exact.
+ *  2. Each invalidated vertex gets its best distance over in-edges from the
+ *     valid part (the boundary), and so does the target of any edge that got
+ *     lighter and now gives a shorter path.
+ *  3. Dijkstra from those seeds re-settles the invalidated vertices (and
+ *     whatever a lighter edge improves), leaving the rest untouched.
+ *
+ * The subtree is the one of the shortest-path tree (parentEdge), a spanning
+ * subgraph of the shortest-path DAG: a vertex with another tight in-edge
+ * from the valid part is invalidated anyway, but gets its old distance back
+ * right from the boundary.
+ *
+ * Weights are a private copy of g.weights; g itself is never changed.
+ *
+ * Usage: java DynamicSssp < input
+ * where input is one graph in the Main format ("N M", "S D", M edge lines),
+ * source S, followed by update lines up to EOF:
+ *     set U V W   the edge U -> V now weighs W
+ *     del U V     remove the edge U -> V
+ *     dist V      print the current distance S -> V (-1 for none)
+ * U V picks the first such edge in input order. Updates are batched and
+ * repaired before the next dist line.
+ */
+public class DynamicSssp {
+
+    static final int INF = Main.INF;
+
+    final CsrGraph g;
+    final CsrGraph rev;
+    final int source;
+
+    private final int[] weights;
+    private final long[] removed;
+    private final int[] dist;
+    // tree edge into v, -1 for the source and unreachable vertices
+    private final int[] parent;
+
+    // edges changed since the last repair, and the weight each had before
+    private final IntList changed = new IntList();
+    private final IntList oldWeights = new IntList();
+
+    private final boolean[] affected;
+    private final IntList affectedList = new IntList();
+    private final MinHeapPriorityQueue pq;
+
+    // runs a full Dijkstra from source
+    public DynamicSssp(CsrGraph g, int source) {
+        if (source < 0 || source >= g.N) {
+            throw new IllegalArgumentException("Source out of range: " + source);
+        }
+        this.g = g;
+        this.rev = g.reverse();
+        this.source = source;
+        weights = g.weights.clone();
+        removed = g.newEdgeSet();
+        dist = new int[g.N];
+        parent = new int[g.N];
+        affected = new boolean[g.N];
+        pq = new MinHeapPriorityQueue(g.N);
+
+        Arrays.fill(dist, INF);
+        Arrays.fill(parent, -1);
+        dist[source] = 0;
+        pq.Insert(source, 0);
+        settle();
+    }
+
+    // current distance source -> v, INF if unreachable; pending changes are not included
+    public int distance(int v) {
+        return dist[v];
+    }
+
+    // id of the shortest-path tree edge into v, -1 for the source or an unreachable v
+    public int parentEdge(int v) {
+        return parent[v];
+    }
+
+    // the distance array itself, for sweeps over every vertex; read only
+    int[] distances() {
+        return dist;
+    }
+
+    public int getWeight(int e) {
+        return weights[e];
+    }
+
+    public boolean isRemoved(int e) {
+        return CsrGraph.isSet(removed, e);
+    }
+
+    // queue the deletion of edge e; does nothing if it is already removed
+    public void removeEdge(int e) {
+        if (CsrGraph.isSet(removed, e)) {
+            return;
+        }
+        CsrGraph.set(removed, e);
+        changed.add(e);
+        oldWeights.add(weights[e]);
+    }
+
+    // queue the deletion of every edge in an edge set (CsrGraph.newEdgeSet)
+    public void removeEdges(long[] edges) {
+        for (int i = 0; i < edges.length; i++) {
+            for (long bits = edges[i]; bits != 0; bits &= bits - 1) {
+                removeEdge((i << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    // queue a new weight for edge e; a removed edge only has its weight recorded
+    public void setWeight(int e, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        if (weight == weights[e]) {
+            return;
+        }
+        if (!CsrGraph.isSet(removed, e)) {
+            changed.add(e);
+            oldWeights.add(weights[e]);
+        }
+        weights[e] = weight;
+    }
+
+    /**
+     * Applies the queued changes. Returns the number of vertices settled
+     * again, which is what the repair cost compared to the N of a full run.
+     */
+    public int repair() {
+        // 1. invalidate the subtrees hanging off changed tree edges that got worse
+        affectedList.clear();
+        for (int i = 0; i < changed.size; i++) {
+            int e = changed.data[i];
+            int v = g.targets[e];
+            boolean worse = CsrGraph.isSet(removed, e) || weights[e] > oldWeights.data[i];
+            if (worse && parent[v] == e && !affected[v]) {
+                invalidateSubtree(v);
+            }
+        }
+        for (int k = 0; k < affectedList.size; k++) {
+            int v = affectedList.data[k];
+            dist[v] = INF;
+            parent[v] = -1;
+        }
+
+        // 2. seeds: the boundary of the invalidated part, and targets of edges that got lighter
+        pq.StartHeap(g.N);
+        for (int k = 0; k < affectedList.size; k++) {
+            int v = affectedList.data[k];
+            for (int r = rev.offsets[v], end = rev.offsets[v + 1]; r < end; r++) {
+                relax(rev.forwardIds[r]);
+            }
+        }
+        for (int i = 0; i < changed.size; i++) {
+            int e = changed.data[i];
+            if (!CsrGraph.isSet(removed, e) && weights[e] < oldWeights.data[i]) {
+                relax(e);
+            }
+        }
+        changed.clear();
+        oldWeights.clear();
+        for (int k = 0; k < affectedList.size; k++) {
+            affected[affectedList.data[k]] = false;
+        }
+
+        // 3. re-settle from the seeds
+        return settle();
+    }
+
+    // marks v and its tree descendants, found through out-edges that are their parent edge
+    private void invalidateSubtree(int v) {
+        int first = affectedList.size;
+        affected[v] = true;
+        affectedList.add(v);
+        for (int k = first; k < affectedList.size; k++) {
+            int u = affectedList.data[k];
+            for (int e = g.offsets[u], end = g.offsets[u + 1]; e < end; e++) {
+                int c = g.targets[e];
+                if (parent[c] == e && !affected[c]) {
+                    affected[c] = true;
+                    affectedList.add(c);
+                }
+            }
+        }
+    }
+
+    // dist[target] via edge e, queueing the target if that is shorter
+    private void relax(int e) {
+        if (CsrGraph.isSet(removed, e)) {
+            return;
+        }
+        int u = g.sources[e];
+        if (dist[u] == INF) {
+            return;
+        }
+        int v = g.targets[e];
+        int alt = dist[u] + weights[e];
+        if (alt < dist[v]) {
+            dist[v] = alt;
+            parent[v] = e;
+            pq.InsertOrDecrease(v, alt);
+        }
+    }
+
+    // Dijkstra from whatever is queued; returns the number of vertices settled
+    private int settle() {
+        int settled = 0;
+        while (!pq.isEmpty()) {
+            int u = pq.ExtractMin();
+            settled++;
+            for (int e = g.offsets[u], end = g.offsets[u + 1]; e < end; e++) {
+                relax(e);
+            }
+        }
+        return settled;
+    }
+
+    // first edge u -> v in input order, -1 if there is none
+    int findEdge(int u, int v) {
+        for (int e = g.offsets[u], end = g.offsets[u + 1]; e < end; e++) {
+            if (g.targets[e] == v) return e;
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+        StringTokenizer st = new StringTokenizer(br.readLine());
+        int N = Integer.parseInt(st.nextToken());
+        int M = Integer.parseInt(st.nextToken());
+        st = new StringTokenizer(br.readLine());
+        int S = Integer.parseInt(st.nextToken());
+        CsrGraph g = CsrGraph.read(br, N, M);
+
+        DynamicSssp sssp = new DynamicSssp(g, S);
+        StringBuilder out = new StringBuilder();
+        long resettled = 0;
+        String line;
+        while ((line = br.readLine()) != null) {
+            st = new StringTokenizer(line);
+            if (!st.hasMoreTokens()) continue;
+            String op = st.nextToken();
+            if (op.equals("dist")) {
+                resettled += sssp.repair();
+                int d = sssp.distance(Integer.parseInt(st.nextToken()));
+                out.append(d == INF ? -1 : d).append('\n');
+                continue;
+            }
+            int u = Integer.parseInt(st.nextToken());
+            int v = Integer.parseInt(st.nextToken());
+            int e = sssp.findEdge(u, v);
+            if (e == -1) {
+                throw new IllegalArgumentException("No edge " + u + " -> " + v);
+            }
+            if (op.equals("del")) {
+                sssp.removeEdge(e);
+            } else if (op.equals("set")) {
+                sssp.setWeight(e, Integer.parseInt(st.nextToken()));
+            } else {
+                throw new IllegalArgumentException("Unknown command: " + op);
+            }
+        }
+        System.out.print(out);
+        System.err.println("vertices re-settled by repairs: " + resettled);
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * One loaded graph answering many S -> D queries with ALT (A*, Landmarks,
+ * Triangle inequality).
+ *
+ * The constructor picks k landmarks by farthest-point selection and stores
+ * d(L, v) and d(v, L) for each landmark L. For any target t the triangle
+ * inequality gives the lower bounds
+ *     d(v, t) >= d(L, t) - d(L, v)   and   d(v, t) >= d(v, L) - d(t, L),
+ * and their maximum over all landmarks is a consistent A* heuristic. Removing
+ * edges only makes distances longer, so the same bounds stay valid for the
+ * almost-shortest pass.
+ *
+ * Usage: java GraphSession [k] [--stats] < input
+ * where input is one graph in the Main format ("N M", "S D", M edge lines)
+ * followed by any number of extra "S D" query lines (up to EOF or "0 0").
+ * Each query prints "shortest almostShortest" (-1 for none). --stats prints
+ * settled-vertex counts to stderr, for shortest() next to those counted by a
+ * plain lazy Dijkstra run stopped at D (its DijkstraStats).
+ */
+public class GraphSession {
+
+    static final int INF = Main.INF;
+    static final int DEFAULT_LANDMARKS = 8;
+
+    final CsrGraph g;
+    final CsrGraph rev;
+    final int[] landmarks;
+    // fromLandmark[i][v] = d(landmarks[i], v), toLandmark[i][v] = d(v, landmarks[i])
+    final int[][] fromLandmark;
+    final int[][] toLandmark;
+
+    private final Search forward;
+    private final Search backward;
+    private final long[] removed;
+    private int settled;
+
+    public GraphSession(CsrGraph g, int k) {
+        this.g = g;
+        this.rev = g.reverse();
+        k = Math.max(1, Math.min(k, g.N));
+        landmarks = new int[k];
+        fromLandmark = new int[k][];
+        toLandmark = new int[k][];
+
+        // farthest-point selection: each new landmark maximizes its distance to the closest chosen one
+        int[] closest = new int[g.N];
+        Arrays.fill(closest, INF);
+        int next = farthest(0, new int[g.N]);
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            fromLandmark[i] = new int[g.N];
+            toLandmark[i] = new int[g.N];
+            Main.dijkstra(g, next, fromLandmark[i], null, null, false);
+            Main.dijkstra(rev, next, toLandmark[i], null, null, false);
+            for (int v = 0; v < g.N; v++) {
+                closest[v] = Math.min(closest[v], fromLandmark[i][v]);
+            }
+            next = pickFarthest(closest);
+        }
+
+        forward = new Search(g, null, false);
+        backward = new Search(rev, rev.forwardIds, true);
+        removed = g.newEdgeSet();
+    }
+
+    // vertex farthest (by finite distance) from start, used to seed the first landmark
+    private int farthest(int start, int[] dist) {
+        Main.dijkstra(g, start, dist, null, null, false);
+        int best = start;
+        for (int v = 0; v < g.N; v++) {
+            if (dist[v] != INF && dist[v] > dist[best]) best = v;
+        }
+        return best;
+    }
+
+    // next landmark: the reachable vertex farthest from all chosen ones, else any unreached one
+    private int pickFarthest(int[] closest) {
+        int best = -1;
+        for (int v = 0; v < g.N; v++) {
+            if (closest[v] == 0) continue;
+            if (best == -1 || closest[v] == INF && closest[best] != INF) {
+                best = v;
+            } else if (closest[v] != INF && closest[best] != INF && closest[v] > closest[best]) {
+                best = v;
+            }
+        }
+        return best == -1 ? 0 : best;
+    }
+
+    /**
+     * Lower bound on d(v, t); INF when the tables prove t unreachable from v.
+     */
+    int lowerBoundTo(int v, int t) {
+        int best = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            int[] from = fromLandmark[i];
+            int[] to = toLandmark[i];
+            // L reaches v but not t, or t reaches L but v does not: v cannot reach t
+            if (from[v] != INF && from[t] == INF) return INF;
+            if (to[t] != INF && to[v] == INF) return INF;
+            if (from[v] != INF) best = Math.max(best, from[t] - from[v]);
+            if (to[t] != INF) best = Math.max(best, to[v] - to[t]);
+        }
+        return best;
+    }
+
+    /**
+     * Lower bound on d(s, v), the backward search's heuristic.
+     */
+    int lowerBoundFrom(int s, int v) {
+        return lowerBoundTo(s, v);
+    }
+
+    /**
+     * Shortest S -> D distance, INF if D is unreachable.
+     */
+    public int shortest(int S, int D) {
+        int d = forward.run(S, D, null, false);
+        settled = forward.settledCount;
+        return d;
+    }
+
+    /**
+     * Shortest S -> D distance using no edge of any shortest S -> D path,
+     * INF if there is none (see Main).
+     *
+     * Forward A* from S and backward A* from D each settle every vertex with
+     * g + h <= d(S, D), which covers every vertex on a shortest path with its
+     * exact distance. Edge (u, v, w) is on a shortest path iff u and v are
+     * settled and gS[u] + w + gD[v] == d(S, D).
+     */
+    public int almostShortest(int S, int D) {
+        int best = forward.run(S, D, null, true);
+        settled = forward.settledCount;
+        if (best == INF) {
+            return INF;
+        }
+        backward.run(D, S, null, true);
+        settled += backward.settledCount;
+
+        IntList marked = new IntList();
+        for (int k = 0; k < forward.touchedCount; k++) {
+            int u = forward.touched[k];
+            if (!forward.settled[u]) continue;
+            for (int e = g.offsets[u], end = g.offsets[u + 1]; e < end; e++) {
+                int v = g.targets[e];
+                if (backward.settled[v] && (long) forward.dist[u] + g.weights[e] + backward.dist[v] == best) {
+                    CsrGraph.set(removed, e);
+                    marked.add(e);
+                }
+            }
+        }
+
+        int answer = forward.run(S, D, removed, false);
+        settled += forward.settledCount;
+
+        // leave the shared edge set empty for the next query
+        for (int i = 0; i < marked.size; i++) {
+            int e = marked.data[i];
+            removed[e >>> 6] &= ~(1L << e);
+        }
+        return answer;
+    }
+
+    // vertices settled by the last query, all of its searches together
+    public int getSettled() {
+        return settled;
+    }
+
+    /**
+     * A* over one direction of the graph, reusing its arrays between runs and
+     * resetting only the vertices the previous run touched.
+     */
+    private class Search {
+        final CsrGraph graph;
+        final int[] ids;
+        final boolean isBackward;
+
+        final int[] dist;
+        final boolean[] settled;
+        final MinHeapPriorityQueue pq;
+        final int[] touched;
+        int touchedCount;
+        int settledCount;
+
+        Search(CsrGraph graph, int[] ids, boolean isBackward) {
+            this.graph = graph;
+            this.ids = ids;
+            this.isBackward = isBackward;
+            dist = new int[graph.N];
+            Arrays.fill(dist, INF);
+            settled = new boolean[graph.N];
+            pq = new MinHeapPriorityQueue(graph.N);
+            touched = new int[graph.N];
+        }
+
+        /**
+         * Returns d(source, target), INF if unreachable. Stops once target is
+         * settled, or with allTies once every vertex with g + h <= that
+         * distance is settled too (h(target) == 0, so that is the key target
+         * was popped with).
+         */
+        int run(int source, int target, long[] removed, boolean allTies) {
+            for (int k = 0; k < touchedCount; k++) {
+                int v = touched[k];
+                dist[v] = INF;
+                settled[v] = false;
+            }
+            touchedCount = 0;
+            settledCount = 0;
+            pq.StartHeap(graph.N);
+
+            int h = heuristic(source, target);
+            if (h == INF) {
+                return INF;
+            }
+            dist[source] = 0;
+            touched[touchedCount++] = source;
+            pq.Insert(source, h);
+
+            while (!pq.isEmpty()) {
+                if (settled[target] && pq.FindMinPriority() > dist[target]) break;
+                int u = pq.ExtractMin();
+                settled[u] = true;
+                settledCount++;
+                if (!allTies && u == target) break;
+
+                for (int e = graph.offsets[u], end = graph.offsets[u + 1]; e < end; e++) {
+                    if (removed != null && CsrGraph.isSet(removed, ids == null ? e : ids[e])) continue;
+                    int v = graph.targets[e];
+                    if (settled[v]) continue;
+                    int alt = dist[u] + graph.weights[e];
+                    if (alt >= dist[v]) continue;
+                    int hv = heuristic(v, target);
+                    if (hv == INF) continue;
+                    if (dist[v] == INF) {
+                        touched[touchedCount++] = v;
+                    }
+                    dist[v] = alt;
+                    pq.InsertOrDecrease(v, alt + hv);
+                }
+            }
+            return dist[target];
+        }
+
+        private int heuristic(int v, int target) {
+            return isBackward ? lowerBoundFrom(target, v) : lowerBoundTo(v, target);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int k = DEFAULT_LANDMARKS;
+        boolean stats = false;
+        for (String arg : args) {
+            if (arg.equals("--stats")) {
+                stats = true;
+            } else {
+                k = Integer.parseInt(arg);
+            }
+        }
+
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+        StringTokenizer st = new StringTokenizer(br.readLine());
+        int N = Integer.parseInt(st.nextToken());
+        int M = Integer.parseInt(st.nextToken());
+        String line = br.readLine();
+        CsrGraph g = CsrGraph.read(br, N, M);
+
+        long start = System.nanoTime();
+        GraphSession session = new GraphSession(g, k);
+        if (stats) {
+            System.err.printf("preprocessing: %d landmarks in %.1f ms%n", k, (System.nanoTime() - start) / 1e6);
+        }
+
+        StringBuilder out = new StringBuilder();
+        long settledShortest = 0;
+        long settledPlain = 0;
+        long settledAlmost = 0;
+        int[] dist = new int[N];
+        boolean first = true;
+        for (; line != null; line = br.readLine()) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            if (!first && line.equals("0 0")) break;
+            first = false;
+
+            st = new StringTokenizer(line);
+            int S = Integer.parseInt(st.nextToken());
+            int D = Integer.parseInt(st.nextToken());
+
+            int shortest = session.shortest(S, D);
+            settledShortest += session.getSettled();
+            int almost = session.almostShortest(S, D);
+            settledAlmost += session.getSettled();
+            out.append(shortest == INF ? -1 : shortest).append(' ')
+               .append(almost == INF ? -1 : almost).append('\n');
+
+            if (stats) {
+                // plain lazy Dijkstra on the same heap, stopped at D as ALT is
+                DijkstraStats plain = new DijkstraStats();
+                Main.dijkstra(g, S, D, dist, null, null, false, new MinHeapPriorityQueue(N), true, plain);
+                settledPlain += plain.getSettled();
+            }
+        }
+        System.out.print(out);
+        if (stats) {
+            System.err.println("settled vertices, shortest: ALT " + settledShortest
+                    + ", plain dijkstra " + settledPlain);
+            System.err.println("settled vertices, almost shortest (all three searches): ALT " + settledAlmost);
+        }
+    }
+}
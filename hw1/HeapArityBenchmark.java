@@ -0,0 +1,135 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Times Main.dijkstra with heap arity 2, 4 and 8.
+ *
+ * Usage:
+ *   java HeapArityBenchmark              - generated sparse and dense graphs
+ *   java HeapArityBenchmark input.txt    - every test case of a file in the Main input format
+ *
+ * For each graph the best of REPS runs is reported, after WARMUP untimed runs.
+ */
+public class HeapArityBenchmark {
+
+    private static final int[] ARITIES = {2, 4, 8};
+    private static final int WARMUP = 3;
+    private static final int REPS = 5;
+
+    // one test case in the Main input format
+    static class Graph {
+        final String name;
+        final int S;
+        final CsrGraph g;
+
+        Graph(String name, int S, CsrGraph g) {
+            this.name = name;
+            this.S = S;
+            this.g = g;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Graph> graphs = new ArrayList<>();
+        if (args.length > 0) {
+            try (BufferedReader br = new BufferedReader(new FileReader(args[0]))) {
+                graphs.addAll(readGraphs(br));
+            }
+        } else {
+            Random rnd = new Random(42);
+            graphs.add(randomGraph("sparse N=200000 M=1000000", 200_000, 1_000_000, 1000, rnd));
+            graphs.add(randomGraph("sparse N=1000000 M=4000000", 1_000_000, 4_000_000, 100, rnd));
+            graphs.add(randomGraph("dense N=2000 M=2000000", 2_000, 2_000_000, 1000, rnd));
+            graphs.add(randomGraph("dense N=5000 M=5000000", 5_000, 5_000_000, 10, rnd));
+        }
+
+        System.out.printf("%-32s %6s %10s%n", "graph", "arity", "best ms");
+        for (Graph g : graphs) {
+            int[] dist = new int[g.g.N];
+            long[] reference = null;
+            for (int arity : ARITIES) {
+                for (int i = 0; i < WARMUP; i++) {
+                    Main.dijkstra(g.g, g.S, dist, null, null, false, arity);
+                }
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < REPS; i++) {
+                    long start = System.nanoTime();
+                    Main.dijkstra(g.g, g.S, dist, null, null, false, arity);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+
+                // every arity has to agree on the distances
+                long[] checksum = {0, 0};
+                for (int d : dist) {
+                    checksum[0] += d;
+                    checksum[1] = checksum[1] * 31 + d;
+                }
+                if (reference == null) {
+                    reference = checksum;
+                } else if (!Arrays.equals(reference, checksum)) {
+                    throw new IllegalStateException("arity " + arity + " disagrees on " + g.name);
+                }
+
+                System.out.printf("%-32s %6d %10.2f%n", g.name, arity, best / 1e6);
+            }
+        }
+    }
+
+    static Graph randomGraph(String name, int N, int M, int maxWeight, Random rnd) {
+        int[] from = new int[M];
+        int[] to = new int[M];
+        int[] w = new int[M];
+        for (int i = 0; i < M; i++) {
+            from[i] = rnd.nextInt(N);
+            to[i] = rnd.nextInt(N);
+            w[i] = 1 + rnd.nextInt(maxWeight);
+        }
+        return new Graph(name, 0, new CsrGraph(N, M, from, to, w));
+    }
+
+    // side x side grid, an edge each way between neighbours, source in a corner
+    static Graph gridGraph(String name, int side, int maxWeight, Random rnd) {
+        int N = side * side;
+        int M = 4 * side * (side - 1);
+        int[] from = new int[M];
+        int[] to = new int[M];
+        int[] w = new int[M];
+        int m = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (c + 1 < side) {
+                    from[m] = v; to[m] = v + 1; w[m++] = 1 + rnd.nextInt(maxWeight);
+                    from[m] = v + 1; to[m] = v; w[m++] = 1 + rnd.nextInt(maxWeight);
+                }
+                if (r + 1 < side) {
+                    from[m] = v; to[m] = v + side; w[m++] = 1 + rnd.nextInt(maxWeight);
+                    from[m] = v + side; to[m] = v; w[m++] = 1 + rnd.nextInt(maxWeight);
+                }
+            }
+        }
+        return new Graph(name, 0, new CsrGraph(N, M, from, to, w));
+    }
+
+    // reads test cases up to "0 0" exactly as Main.main does
+    static List<Graph> readGraphs(BufferedReader br) throws IOException {
+        List<Graph> graphs = new ArrayList<>();
+        String line;
+        while ((line = br.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            StringTokenizer st = new StringTokenizer(line);
+            int N = Integer.parseInt(st.nextToken());
+            int M = Integer.parseInt(st.nextToken());
+            if (N == 0 && M == 0) break;
+
+            st = new StringTokenizer(br.readLine());
+            int S = Integer.parseInt(st.nextToken());
+
+            CsrGraph g = CsrGraph.read(br, N, M);
+            graphs.add(new Graph("case " + graphs.size() + " N=" + N + " M=" + M, S, g));
+        }
+        return graphs;
+    }
+}
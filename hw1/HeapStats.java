@@ -0,0 +1,51 @@
+/**
+ * Opt-in operation counters for MinHeapPriorityQueue (see setStats). A heap
+ * without a HeapStats attached counts nothing.
+ *
+ * siftUpLevels / siftDownLevels count the levels Heapify_Up / Heapify_Down
+ * looked at, the last one (where the node stopped) included; swaps counts
+ * the levels a node actually moved. changeUp counts priority decreases
+ * (ChangePriority or InsertOrDecrease, the node moves up), changeDown
+ * ChangePriority increases.
+ */
+public class HeapStats {
+
+    long inserts;
+    long extracts;
+    long swaps;
+    long siftUpLevels;
+    long siftDownLevels;
+    long changeUp;
+    long changeDown;
+
+    public long getInserts()        { return inserts; }
+    public long getExtracts()       { return extracts; }
+    public long getSwaps()          { return swaps; }
+    public long getSiftUpLevels()   { return siftUpLevels; }
+    public long getSiftDownLevels() { return siftDownLevels; }
+    public long getChangeUp()       { return changeUp; }
+    public long getChangeDown()     { return changeDown; }
+
+    public void add(HeapStats other) {
+        inserts += other.inserts;
+        extracts += other.extracts;
+        swaps += other.swaps;
+        siftUpLevels += other.siftUpLevels;
+        siftDownLevels += other.siftDownLevels;
+        changeUp += other.changeUp;
+        changeDown += other.changeDown;
+    }
+
+    public void reset() {
+        inserts = extracts = swaps = 0;
+        siftUpLevels = siftDownLevels = 0;
+        changeUp = changeDown = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "inserts=" + inserts + " extracts=" + extracts + " swaps=" + swaps
+                + " siftUpLevels=" + siftUpLevels + " siftDownLevels=" + siftDownLevels
+                + " changeUp=" + changeUp + " changeDown=" + changeDown;
+    }
+}
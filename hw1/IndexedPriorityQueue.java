@@ -0,0 +1,31 @@
+/**
+ * Min-priority queue over dense int items 0..capacity-1, the operations
+ * Main.dijkstra needs. Implementations:
+ *   MinHeapPriorityQueue - d-ary array heap, general purpose
+ *   PairingHeap          - O(1) insert / amortized cheap decrease-key, good on dense graphs
+ *   BucketQueue          - Dial's buckets, monotone, for small non-negative edge weights
+ */
+public interface IndexedPriorityQueue {
+
+    // insert a new (item, priority); the item must not already be in the queue
+    void Insert(int item, int priority);
+
+    // remove and return the item with minimum priority, -1 if empty
+    int ExtractMinItem();
+
+    // change the priority of item; does nothing if the item is not in the queue
+    void ChangePriority(int item, int newPriority);
+
+    // insert item if it is absent, otherwise lower its priority if newPriority is smaller;
+    // returns true if the queue changed
+    boolean InsertOrDecrease(int item, int newPriority);
+
+    boolean isEmpty();
+
+    // Insert for the first n (items[i], priorities[i]) pairs; implementations may do it in bulk
+    default void InsertAll(int[] items, int[] priorities, int n) {
+        for (int i = 0; i < n; i++) {
+            Insert(items[i], priorities[i]);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.Arrays;
+
+/**
+ * Growable int array, for vertex and edge-id lists without boxing.
+ */
+public class IntList {
+
+    int[] data = new int[16];
+    int size;
+
+    void add(int x) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = x;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
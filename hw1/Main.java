@@ -3,33 +3,153 @@ import java.util.*;
 
 public class Main {
 
-    static class Edge {
-        int to;
-        int weight;
-        Edge(int t, int w) {
-            to = t;
-            weight = w;
+    static final int INF = 1_000_000_000;
+
+    // which IndexedPriorityQueue dijkstra runs on
+    enum QueueBackend { HEAP, PAIRING, BUCKET, AUTO }
+
+    // AUTO uses Dial's buckets while the largest weight is at most this, else the d-ary heap;
+    // it never picks the pairing heap, which is only used when asked for.
+    static final int BUCKET_MAX_WEIGHT = 1 << 12;
+
+    /**
+     * Builds an empty queue of capacity g.N for the given backend. AUTO looks at
+     * the weight range of g to choose one.
+     */
+    static IndexedPriorityQueue newQueue(QueueBackend backend, CsrGraph g) {
+        if (backend == QueueBackend.AUTO) {
+            backend = g.maxWeight <= BUCKET_MAX_WEIGHT ? QueueBackend.BUCKET : QueueBackend.HEAP;
+        }
+        switch (backend) {
+            case PAIRING:
+                return new PairingHeap(g.N);
+            case BUCKET:
+                return new BucketQueue(g.N, g.maxWeight);
+            default:
+                return new MinHeapPriorityQueue(g.N);
         }
     }
 
-    static final int INF = 1_000_000_000;
-
     /**
-     * Dijkstra's algorithm using MinHeapPriorityQueue.
-     * if buildPrev == true, it also fills prev[] with all predecessors that lie
-     * on some shortest path.
+     * Dijkstra's algorithm, queue picked by QueueBackend.AUTO.
+     * if buildPrev == true, it also fills prev[v] with the ids of all edges
+     * into v that lie on some shortest path.
      * if buildPrev == false, prev[] is ignored.
      *
-     * removed[u][v] == true means the edge u -> v should be ignored.
+     * removed is an edge set (CsrGraph.newEdgeSet) of edge ids to ignore, or null.
      */
     static void dijkstra(
-            int N,
+            CsrGraph g,
             int S,
-            List<Edge>[] adj,
             int[] dist,
             List<Integer>[] prev,
-            boolean[][] removed,
+            long[] removed,
             boolean buildPrev) {
+        dijkstra(g, S, dist, prev, removed, buildPrev, QueueBackend.AUTO);
+    }
+
+    /**
+     * Same as above on a MinHeapPriorityQueue with the given d-ary arity
+     * (see HeapArityBenchmark for how the default was picked).
+     */
+    static void dijkstra(
+            CsrGraph g,
+            int S,
+            int[] dist,
+            List<Integer>[] prev,
+            long[] removed,
+            boolean buildPrev,
+            int arity) {
+        dijkstra(g, S, dist, prev, removed, buildPrev, new MinHeapPriorityQueue(g.N, arity));
+    }
+
+    static void dijkstra(
+            CsrGraph g,
+            int S,
+            int[] dist,
+            List<Integer>[] prev,
+            long[] removed,
+            boolean buildPrev,
+            QueueBackend backend) {
+        dijkstra(g, S, dist, prev, removed, buildPrev, newQueue(backend, g));
+    }
+
+    /**
+     * Same as above on the given queue, which must be empty and have capacity g.N.
+     */
+    static void dijkstra(
+            CsrGraph g,
+            int S,
+            int[] dist,
+            List<Integer>[] prev,
+            long[] removed,
+            boolean buildPrev,
+            IndexedPriorityQueue pq) {
+        dijkstra(g, S, -1, dist, prev, removed, buildPrev, pq, false);
+    }
+
+    /**
+     * Dijkstra with the two knobs the overloads above leave off:
+     *
+     * lazy == false preloads every vertex at INF, as in the textbook version.
+     * lazy == true only inserts a vertex when it is first reached
+     * (pq.InsertOrDecrease), so the queue never holds unreached vertices.
+     *
+     * D >= 0 stops the run once D is settled and the queue minimum has moved
+     * past dist[D]. dist[D] and, with buildPrev, every prev[] list on a shortest
+     * S -> D path are then final; other dist[] entries may only be upper bounds.
+     * D == -1 settles everything reachable from S.
+     */
+    static void dijkstra(
+            CsrGraph g,
+            int S,
+            int D,
+            int[] dist,
+            List<Integer>[] prev,
+            long[] removed,
+            boolean buildPrev,
+            IndexedPriorityQueue pq,
+            boolean lazy) {
+        dijkstra(g, S, D, dist, prev, removed, buildPrev, pq, lazy, null);
+    }
+
+    /**
+     * Same as above, adding the run's counters to stats (may be null). The
+     * counters are also collected, and committed as a DijkstraEvent, while a
+     * JFR recording has that event enabled; otherwise the only cost is a few
+     * local increments.
+     */
+    static void dijkstra(
+            CsrGraph g,
+            int S,
+            int D,
+            int[] dist,
+            List<Integer>[] prev,
+            long[] removed,
+            boolean buildPrev,
+            IndexedPriorityQueue pq,
+            boolean lazy,
+            DijkstraStats stats) {
+
+        DijkstraEvent event = new DijkstraEvent();
+        boolean record = stats != null || event.isEnabled();
+        long start = record ? System.nanoTime() : 0;
+        event.begin();
+
+        // heap counters for this run only; the queue's own HeapStats (if any) is put back afterwards
+        MinHeapPriorityQueue heap = record && pq instanceof MinHeapPriorityQueue ? (MinHeapPriorityQueue) pq : null;
+        HeapStats heapStats = heap != null ? new HeapStats() : null;
+        HeapStats callerHeapStats = heap != null ? heap.setStats(heapStats) : null;
+        long settled = 0;
+        long relaxed = 0;
+        long improved = 0;
+        long stalePops = 0;
+        long removedSkipped = 0;
+
+        int N = g.N;
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] weights = g.weights;
 
         Arrays.fill(dist, INF);
         if (buildPrev) {
@@ -38,12 +158,20 @@ public class Main {
             }
         }
 
-        MinHeapPriorityQueue pq = new MinHeapPriorityQueue(N);
-        for (int v = 0; v < N; v++) {
-            pq.Insert(v, INF);
-        }
         dist[S] = 0;
-        pq.ChangePriority(S, 0);
+        if (lazy) {
+            pq.Insert(S, 0);
+        } else {
+            // one bulk insert, O(N) on the d-ary heap instead of N sift-ups
+            int[] items = new int[N];
+            int[] priorities = new int[N];
+            for (int v = 0; v < N; v++) {
+                items[v] = v;
+                priorities[v] = INF;
+            }
+            priorities[S] = 0;
+            pq.InsertAll(items, priorities, N);
+        }
 
         boolean[] visited = new boolean[N];
 
@@ -51,308 +179,330 @@ public class Main {
             int u = pq.ExtractMinItem();
             if (u == -1) break;
             if (dist[u] == INF) break;
-            if (visited[u]) continue;
+            if (visited[u]) {
+                stalePops++;
+                continue;
+            }
+            // everything left is further than D; equal distances still go through
+            // so zero-weight edges into D are not missed in prev[D]
+            if (D >= 0 && visited[D] && dist[u] > dist[D]) break;
             visited[u] = true;
+            settled++;
 
-            for (Edge e : adj[u]) {
-                int v = e.to;
-                if (removed != null && removed[u][v]) continue; 
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                if (removed != null && CsrGraph.isSet(removed, e)) {
+                    removedSkipped++;
+                    continue;
+                }
+                relaxed++;
+                int v = targets[e];
                 if (visited[v]) continue;
 
-                int alt = dist[u] + e.weight;
+                int alt = dist[u] + weights[e];
                 if (alt < dist[v]) {
+                    improved++;
                     dist[v] = alt;
                     if (buildPrev) {
                         prev[v].clear();
-                        prev[v].add(u);
+                        prev[v].add(e);
                     }
-                    pq.ChangePriority(v, alt);
+                    pq.InsertOrDecrease(v, alt);
                 } else if (buildPrev && alt == dist[v]) {
-                    prev[v].add(u);
+                    prev[v].add(e);
                 }
             }
         }
-    }
-
-    public static void main(String[] args) throws Exception {
-        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-        StringBuilder out = new StringBuilder();
-
-        while (true) {
-            String line = br.readLine();
-            if (line == null) break;
-            line = line.trim();
-            if (line.isEmpty()) continue;
-
-            StringTokenizer st = new StringTokenizer(line);
-            int N = Integer.parseInt(st.nextToken());
-            int M = Integer.parseInt(st.nextToken());
-            if (N == 0 && M == 0) break;
-
-            st = new StringTokenizer(br.readLine());
-            int S = Integer.parseInt(st.nextToken());
-            int D = Integer.parseInt(st.nextToken());
-
-            @SuppressWarnings("unchecked")
-            List<Edge>[] adj = new ArrayList[N];
-            for (int i = 0; i < N; i++) {
-                adj[i] = new ArrayList<>();
-            }
-
-            for (int i = 0; i < M; i++) {
-                st = new StringTokenizer(br.readLine());
-                int U = Integer.parseInt(st.nextToken());
-                int V = Integer.parseInt(st.nextToken());
-                int P = Integer.parseInt(st.nextToken());
-                adj[U].add(new Edge(V, P));
-            }
-
-            int[] dist = new int[N];
-            @SuppressWarnings("unchecked")
-            List<Integer>[] prev = new ArrayList[N];
-            for (int i = 0; i < N; i++) {
-                prev[i] = new ArrayList<>();
-            }
-            boolean[][] removed = new boolean[N][N];
 
-            // 1. First Dijkstra: find all shortest paths and fill prev[]
-            dijkstra(N, S, adj, dist, prev, removed, true);
-
-            // If no shortest path at all, there is no "almost shortest" path
-            if (dist[D] == INF) {
-                out.append(-1).append('\n');
-                continue;
+        if (!record) {
+            return;
+        }
+        if (heap != null) {
+            heap.setStats(callerHeapStats);
+            if (callerHeapStats != null) {
+                callerHeapStats.add(heapStats);
             }
-
-            // 2. Backward BFS from D using prev[] to mark all edges in any shortest path
-            Queue<Integer> q = new ArrayDeque<>();
-            boolean[] visitedPrev = new boolean[N];
-            q.add(D);
-            visitedPrev[D] = true;
-
-            while (!q.isEmpty()) {
-                int v = q.poll();
-                for (int u : prev[v]) {
-                    if (!removed[u][v]) {
-                        removed[u][v] = true;
-                        if (!visitedPrev[u]) {
-                            visitedPrev[u] = true;
-                            q.add(u);
-                        }
-                    }
-                }
+        }
+        if (stats != null) {
+            stats.runs++;
+            stats.nanos += System.nanoTime() - start;
+            stats.settled += settled;
+            stats.relaxed += relaxed;
+            stats.improved += improved;
+            stats.stalePops += stalePops;
+            stats.removedSkipped += removedSkipped;
+            if (heapStats != null) {
+                stats.heap.add(heapStats);
             }
-
-            // 3. Second Dijkstra: ignore all removed edges
-            dijkstra(N, S, adj, dist, prev, removed, false);
-
-            if (dist[D] == INF) {
-                out.append(-1).append('\n');
-            } else {
-                out.append(dist[D]).append('\n');
+        }
+        if (event.shouldCommit()) {
+            event.source = S;
+            event.target = D;
+            event.vertices = N;
+            event.settled = settled;
+            event.relaxed = relaxed;
+            event.improved = improved;
+            event.stalePops = stalePops;
+            event.removedSkipped = removedSkipped;
+            if (heapStats != null) {
+                event.heapSwaps = heapStats.swaps;
+                event.heapSiftUpLevels = heapStats.siftUpLevels;
+                event.heapSiftDownLevels = heapStats.siftDownLevels;
+                event.heapChangeUp = heapStats.changeUp;
+                event.heapChangeDown = heapStats.changeDown;
             }
+            event.commit();
         }
-
-        System.out.print(out.toString());
     }
-}
 
-/**
- * MinHeapPriorityQueue from Part I, slightly extended with ExtractMinItem()
- * so Dijkstra can get just the vertex id.
- */
-class MinHeapPriorityQueue {
-
-    // Node storing (item, priority)
-    private static class HeapNode {
-        int item;
-        int priority;
-        HeapNode(int item, int priority) {
-            this.item = item;
-            this.priority = priority;
+    /**
+     * Marks in removed every edge on some shortest S -> D path, without
+     * predecessor lists: with dS = distances from S and dD = distances to D
+     * (Dijkstra from D on the reversed graph), edge (u, v, w) is on a shortest
+     * path iff dS[u] + w + dD[v] == dS[D]. The two searches run on separate
+     * threads. With lazy, both stop at the other endpoint; the labels they leave
+     * beyond it are too large to pass the test, so the sweep stays exact.
+     *
+     * Returns dS[D], INF if D is unreachable (nothing is marked then).
+     * Both searches are added to stats if it is not null.
+     */
+    static int markShortestPathEdges(
+            CsrGraph g,
+            int S,
+            int D,
+            long[] removed,
+            QueueBackend backend,
+            boolean lazy,
+            DijkstraStats stats) throws InterruptedException {
+
+        int[] dS = new int[g.N];
+        int[] dD = new int[g.N];
+        CsrGraph rev = g.reverse();
+        DijkstraStats backwardStats = stats != null ? new DijkstraStats() : null;
+
+        Thread backward = new Thread(() ->
+                dijkstra(rev, D, lazy ? S : -1, dD, null, null, false, newQueue(backend, rev), lazy, backwardStats));
+        backward.start();
+        dijkstra(g, S, lazy ? D : -1, dS, null, null, false, newQueue(backend, g), lazy, stats);
+        backward.join();
+        if (stats != null) {
+            stats.add(backwardStats);
         }
-        @Override
-        public String toString() {
-            return "(" + item + ", " + priority + ")";
+
+        int best = dS[D];
+        if (best == INF) {
+            return INF;
         }
+        markTightEdges(g, dS, dD, best, removed);
+        return best;
     }
 
-    private HeapNode[] heap;
-    private int size;
-    private Map<Integer, Integer> position;
+    // sets every edge (u, v, w) with dS[u] + w + dD[v] == best
+    static void markTightEdges(CsrGraph g, int[] dS, int[] dD, int best, long[] removed) {
+        for (int e = 0; e < g.M; e++) {
+            int u = g.sources[e];
+            int v = g.targets[e];
+            if (dS[u] != INF && dD[v] != INF && (long) dS[u] + g.weights[e] + dD[v] == best) {
+                CsrGraph.set(removed, e);
+            }
+        }
+    }
 
-    public MinHeapPriorityQueue(int capacity) {
-        StartHeap(capacity);
+    /**
+     * The almost-shortest answer by DynamicSssp: one full Dijkstra from S,
+     * the labels sweep to find the shortest-path edges, then a repair that
+     * only re-settles the vertices whose tree paths used them.
+     */
+    static int almostShortestDynamic(CsrGraph g, int S, int D, QueueBackend backend, boolean lazy, DijkstraStats stats) {
+        DynamicSssp sssp = new DynamicSssp(g, S);
+        int best = sssp.distance(D);
+        if (best == INF) {
+            return INF;
+        }
+        int[] dD = new int[g.N];
+        dijkstra(sssp.rev, D, lazy ? S : -1, dD, null, null, false, newQueue(backend, sssp.rev), lazy, stats);
+        long[] removed = g.newEdgeSet();
+        markTightEdges(g, sssp.distances(), dD, best, removed);
+        sssp.removeEdges(removed);
+        sssp.repair();
+        return sssp.distance(D);
     }
 
-    // 3. StartHeap(N) – initialize / reset the heap to be empty with capacity N.
-    public void StartHeap(int capacity) {
-        heap = new HeapNode[capacity + 1];
-        size = 0;
-        position = new HashMap<>();
+    // solver switches from the command line, see main
+    static final class Options {
+        QueueBackend backend = QueueBackend.AUTO;
+        boolean lazy;
+        boolean labels;
+        boolean bidirectional;
+        boolean dynamic;
     }
 
-    // utils
-    private int parent(int i) { return i / 2; }
-    private int left(int i)   { return 2 * i; }
-    private int right(int i)  { return 2 * i + 1; }
+    // one test case: the graph and its "S D" line
+    static final class Case {
+        final CsrGraph g;
+        final int S;
+        final int D;
 
-    public boolean isEmpty() {
-        return size == 0;
+        Case(CsrGraph g, int S, int D) {
+            this.g = g;
+            this.S = S;
+            this.D = D;
+        }
     }
 
-    public int getSize() {
-        return size;
-    }
+    /**
+     * Reads the next case, null at EOF or at the terminating "0 0" line.
+     */
+    static Case readCase(BufferedReader br) throws IOException {
+        String line;
+        do {
+            line = br.readLine();
+            if (line == null) return null;
+            line = line.trim();
+        } while (line.isEmpty());
 
-    private void swap(int i, int j) {
-        HeapNode temp = heap[i];
-        heap[i] = heap[j];
-        heap[j] = temp;
+        StringTokenizer st = new StringTokenizer(line);
+        int N = Integer.parseInt(st.nextToken());
+        int M = Integer.parseInt(st.nextToken());
+        if (N == 0 && M == 0) return null;
 
-        position.put(heap[i].item, i);
-        position.put(heap[j].item, j);
+        st = new StringTokenizer(br.readLine());
+        int S = Integer.parseInt(st.nextToken());
+        int D = Integer.parseInt(st.nextToken());
+        return new Case(CsrGraph.read(br, N, M), S, D);
     }
 
-    // 1. Heapify_Up(index) - move node at index up until heap property holds.
-    private void Heapify_Up(int index) {
-        while (index > 1) {
-            int p = parent(index);
-            if (heap[index].priority < heap[p].priority) {
-                swap(index, p);
-                index = p;
-            } else {
-                break;
-            }
+    /**
+     * The almost shortest S -> D distance of one case, INF if there is none.
+     * Touches nothing shared, so cases can be solved on different threads
+     * (each with its own stats, which may be null).
+     */
+    static int solve(Case c, Options opt, DijkstraStats stats) throws InterruptedException {
+        CsrGraph g = c.g;
+        int N = g.N;
+        int S = c.S;
+        int D = c.D;
+        QueueBackend backend = opt.backend;
+        boolean lazy = opt.lazy;
+
+        if (opt.dynamic) {
+            return almostShortestDynamic(g, S, D, backend, lazy, stats);
         }
-    }
-
-    // 2. Heapify_Down(index) – move node at index down until heap property holds.
-    private void Heapify_Down(int index) {
-        while (true) {
-            int leftChild = left(index);
-            int rightChild = right(index);
-            int smallest = index;
 
-            if (leftChild <= size && heap[leftChild].priority < heap[smallest].priority) {
-                smallest = leftChild;
+        if (opt.labels) {
+            long[] removed = g.newEdgeSet();
+            if (markShortestPathEdges(g, S, D, removed, backend, lazy, stats) == INF) {
+                return INF;
             }
-            if (rightChild <= size && heap[rightChild].priority < heap[smallest].priority) {
-                smallest = rightChild;
+            if (opt.bidirectional) {
+                return new BidirectionalDijkstra(g).query(S, D, removed);
             }
-            if (smallest != index) {
-                swap(index, smallest);
-                index = smallest;
-            } else {
-                break;
-            }
-        }
-    }
-
-    // 4. Insert(item, value) – insert a new (item, priority) into the heap.
-    public void Insert(int item, int priority) {
-        if (size >= heap.length - 1) {
-            throw new IllegalStateException("Heap is full");
-        }
-        if (position.containsKey(item)) {
-            throw new IllegalArgumentException("Item already present in heap: " + item);
+            int[] dist = new int[N];
+            dijkstra(g, S, lazy ? D : -1, dist, null, removed, false, newQueue(backend, g), lazy, stats);
+            return dist[D];
         }
 
-        size++;
-        heap[size] = new HeapNode(item, priority);
-        position.put(item, size);
-        Heapify_Up(size);
-    }
-
-
-    // 5. FindMin() – return the minimum element without removing it
-    public HeapNode FindMin() {
-        if (size == 0) {
-            return null;
+        int[] dist = new int[N];
+        @SuppressWarnings("unchecked")
+        List<Integer>[] prev = new ArrayList[N];
+        for (int i = 0; i < N; i++) {
+            prev[i] = new ArrayList<>();
         }
-        return heap[1];
-    }
+        long[] removed = g.newEdgeSet();
 
-    // 6. Delete(index) – remove the node at position index in O(log n)
-    private void DeleteIndex(int index) {
-        if (index < 1 || index > size) {
-            return;
-        }
+        // 1. First Dijkstra: find all shortest paths and fill prev[]
+        dijkstra(g, S, lazy ? D : -1, dist, prev, removed, true, newQueue(backend, g), lazy, stats);
 
-        if (index == size) {
-            int item = heap[index].item;
-            position.remove(item);
-            heap[index] = null;
-            size--;
-            return;
+        // If no shortest path at all, there is no "almost shortest" path
+        if (dist[D] == INF) {
+            return INF;
         }
 
-        HeapNode nodeToDelete = heap[index];
-        HeapNode lastNode = heap[size];
-
-        // move last node to index
-        heap[index] = lastNode;
-        heap[size] = null;
-        size--;
-
-        // update position map
-        position.remove(nodeToDelete.item);
-        position.put(lastNode.item, index);
-
-        // restore heap property
-        int parentIndex = parent(index);
-        if (index > 1 && heap[index].priority < heap[parentIndex].priority) {
-            Heapify_Up(index);
-        } else {
-            Heapify_Down(index);
+        // 2. Backward BFS from D using prev[] to mark all edges in any shortest path
+        Queue<Integer> q = new ArrayDeque<>();
+        boolean[] visitedPrev = new boolean[N];
+        q.add(D);
+        visitedPrev[D] = true;
+
+        while (!q.isEmpty()) {
+            int v = q.poll();
+            for (int e : prev[v]) {
+                if (!CsrGraph.isSet(removed, e)) {
+                    CsrGraph.set(removed, e);
+                    int u = g.sources[e];
+                    if (!visitedPrev[u]) {
+                        visitedPrev[u] = true;
+                        q.add(u);
+                    }
+                }
+            }
         }
-    }
 
-    // 7. ExtractMin() – remove and return the minimum element
-    public HeapNode ExtractMin() {
-        if (size == 0) {
-            return null;
+        // 3. Second Dijkstra: ignore all removed edges
+        if (opt.bidirectional) {
+            return new BidirectionalDijkstra(g).query(S, D, removed);
         }
-        HeapNode min = heap[1];
-        DeleteIndex(1);
-        return min;
+        dijkstra(g, S, lazy ? D : -1, dist, prev, removed, false, newQueue(backend, g), lazy, stats);
+        return dist[D];
     }
 
-    // 8. Delete(item) – delete the node with the given item key
-    public void Delete(int item) {
-        Integer index = position.get(item);
-        if (index == null) {
-            return; 
+    public static void main(String[] args) throws Exception {
+        // optional: --queue=heap|pairing|bucket|auto
+        //           --lazy   insert vertices on discovery and stop once D is settled
+        //           --labels find shortest-path edges from forward/reverse distances
+        //                    instead of prev[] lists (see markShortestPathEdges)
+        //           --bidirectional  answer the second (almost shortest) pass with
+        //                    BidirectionalDijkstra
+        //           --dynamic  answer the second pass by repairing the first
+        //                    search's tree with DynamicSssp
+        //           --threads=T  solve cases on T worker threads (CasePipeline)
+        //           --in-flight=K  at most K cases read but not yet written
+        //                    (default CasePipeline.IN_FLIGHT_PER_THREAD * T)
+        //           --stats  print the summed DijkstraStats of all runs to stderr
+        Options opt = new Options();
+        int threads = 1;
+        int inFlight = 0;
+        DijkstraStats stats = null;
+        for (String arg : args) {
+            if (arg.equals("--lazy")) {
+                opt.lazy = true;
+            } else if (arg.equals("--labels")) {
+                opt.labels = true;
+            } else if (arg.equals("--bidirectional")) {
+                opt.bidirectional = true;
+            } else if (arg.equals("--dynamic")) {
+                opt.dynamic = true;
+            } else if (arg.equals("--stats")) {
+                stats = new DijkstraStats();
+            } else if (arg.startsWith("--queue=")) {
+                opt.backend = QueueBackend.valueOf(arg.substring("--queue=".length()).toUpperCase());
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--in-flight=")) {
+                inFlight = Integer.parseInt(arg.substring("--in-flight=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
         }
-        DeleteIndex(index);
-    }
 
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
 
-    // 9. ChangePriority(item, newPriority) – change the priority of item
-    public void ChangePriority(int item, int newPriority) {
-        Integer index = position.get(item);
-        if (index == null) {
-            return; 
+        if (threads > 1) {
+            if (inFlight <= 0) {
+                inFlight = CasePipeline.IN_FLIGHT_PER_THREAD * threads;
+            }
+            PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            new CasePipeline(opt, threads, inFlight).run(br, pw, stats);
+            pw.flush();
+        } else {
+            StringBuilder out = new StringBuilder();
+            for (Case c; (c = readCase(br)) != null; ) {
+                int answer = solve(c, opt, stats);
+                out.append(answer == INF ? -1 : answer).append('\n');
+            }
+            System.out.print(out.toString());
         }
-
-        int oldPriority = heap[index].priority;
-        heap[index].priority = newPriority;
-
-        if (newPriority < oldPriority) {
-            Heapify_Up(index);
-        } else if (newPriority > oldPriority) {
-            Heapify_Down(index);
+        if (stats != null) {
+            System.err.println(stats);
         }
     }
-
-    /**
-     * Convenience method for Dijkstra:
-     * returns only the item (vertex id) with minimum priority.
-     * Returns -1 if heap is empty.
-     */
-    public int ExtractMinItem() {
-        HeapNode min = ExtractMin();
-        if (min == null) return -1;
-        return min.item;
-    }
 }
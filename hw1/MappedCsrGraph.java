@@ -0,0 +1,355 @@
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary CSR file format, read through FileChannel.map so that a huge graph
+ * is not parsed (or even copied onto the heap) on every run.
+ *
+ *   java MappedCsrGraph convert input.txt graph.csr   - one-time conversion
+ *   java MappedCsrGraph solve graph.csr [--lazy]      - same output as Main --labels
+ *
+ * File layout (little-endian ints): MAGIC, VERSION, number of cases, then
+ * for each case N, M, S, D and the arrays
+ *   offsets[N+1], targets[M], weights[M], sources[M]        forward CSR
+ *   revOffsets[N+1], revTargets[M], revWeights[M], revIds[M] reversed CSR
+ * where revIds[r] is the forward id of reversed edge r, as in
+ * CsrGraph.reverse(). Edge ids are forward CSR positions, so an edge set
+ * (long[] bitset) is shared by both directions.
+ *
+ * The converter reads the text twice per case, once to count degrees and
+ * once to write every edge straight into its mapped slot, so it only keeps
+ * O(N) ints on the heap. Each array is mapped on its own, which keeps every
+ * mapping under the 2 GB limit of a MappedByteBuffer for M < 2^29.
+ */
+public class MappedCsrGraph {
+
+    static final int INF = Main.INF;
+
+    private static final int MAGIC = 0x43535231;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int CASE_HEADER_BYTES = 16;
+
+    final int N;
+    final int M;
+    final int S;
+    final int D;
+    final IntBuffer offsets;
+    final IntBuffer targets;
+    final IntBuffer weights;
+    final IntBuffer sources;
+    final IntBuffer revOffsets;
+    final IntBuffer revTargets;
+    final IntBuffer revWeights;
+    final IntBuffer revIds;
+
+    private MappedCsrGraph(int N, int M, int S, int D, IntBuffer[] arrays) {
+        this.N = N;
+        this.M = M;
+        this.S = S;
+        this.D = D;
+        offsets = arrays[0];
+        targets = arrays[1];
+        weights = arrays[2];
+        sources = arrays[3];
+        revOffsets = arrays[4];
+        revTargets = arrays[5];
+        revWeights = arrays[6];
+        revIds = arrays[7];
+    }
+
+    // byte length of the eight arrays of one case
+    private static long arraysBytes(int N, int M) {
+        return 4L * (2L * (N + 1) + 6L * M);
+    }
+
+    // lengths of the eight arrays, in file order
+    private static int[] arrayLengths(int N, int M) {
+        return new int[] {N + 1, M, M, M, N + 1, M, M, M};
+    }
+
+    private static IntBuffer map(FileChannel ch, FileChannel.MapMode mode, long pos, int ints) throws IOException {
+        MappedByteBuffer buf = ch.map(mode, pos, 4L * ints);
+        return buf.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Maps every case of a file written by convert. The mappings stay valid
+     * after the channel is closed.
+     */
+    public static List<MappedCsrGraph> open(Path file) throws IOException {
+        List<MappedCsrGraph> cases = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            IntBuffer header = map(ch, FileChannel.MapMode.READ_ONLY, 0, 3);
+            if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " graph file");
+            }
+            int count = header.get(2);
+            long pos = HEADER_BYTES;
+            for (int c = 0; c < count; c++) {
+                IntBuffer h = map(ch, FileChannel.MapMode.READ_ONLY, pos, 4);
+                int N = h.get(0), M = h.get(1), S = h.get(2), D = h.get(3);
+                pos += CASE_HEADER_BYTES;
+                int[] lengths = arrayLengths(N, M);
+                IntBuffer[] arrays = new IntBuffer[lengths.length];
+                for (int i = 0; i < lengths.length; i++) {
+                    arrays[i] = map(ch, FileChannel.MapMode.READ_ONLY, pos, lengths[i]);
+                    pos += 4L * lengths[i];
+                }
+                cases.add(new MappedCsrGraph(N, M, S, D, arrays));
+            }
+        }
+        return cases;
+    }
+
+    /**
+     * Converts a text input in the Main format (cases up to "0 0" or EOF)
+     * into the binary format. Returns the number of cases.
+     */
+    public static int convert(Path text, Path out) throws IOException {
+        try (FileChannel in = FileChannel.open(text, StandardOpenOption.READ);
+             FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            TextReader r = new TextReader(in, 0);
+            long pos = HEADER_BYTES;
+            int count = 0;
+            while (true) {
+                if (!r.hasNext()) break;
+                int N = r.nextInt();
+                int M = r.nextInt();
+                if (N == 0 && M == 0) break;
+                int S = r.nextInt();
+                int D = r.nextInt();
+                long edgesStart = r.position();
+
+                // pass 1: degrees
+                int[] outFill = new int[N + 1];
+                int[] inFill = new int[N + 1];
+                for (int i = 0; i < M; i++) {
+                    int u = r.nextInt();
+                    int v = r.nextInt();
+                    r.nextInt();
+                    outFill[u + 1]++;
+                    inFill[v + 1]++;
+                }
+                long caseEnd = r.position();
+                for (int u = 0; u < N; u++) {
+                    outFill[u + 1] += outFill[u];
+                    inFill[u + 1] += inFill[u];
+                }
+
+                IntBuffer h = map(ch, FileChannel.MapMode.READ_WRITE, pos, 4);
+                h.put(0, N).put(1, M).put(2, S).put(3, D);
+                pos += CASE_HEADER_BYTES;
+                int[] lengths = arrayLengths(N, M);
+                IntBuffer[] a = new IntBuffer[lengths.length];
+                for (int i = 0; i < lengths.length; i++) {
+                    a[i] = map(ch, FileChannel.MapMode.READ_WRITE, pos, lengths[i]);
+                    pos += 4L * lengths[i];
+                }
+                for (int u = 0; u <= N; u++) {
+                    a[0].put(u, outFill[u]);
+                    a[4].put(u, inFill[u]);
+                }
+
+                // pass 2: every edge into its slot, input order kept within a vertex like CsrGraph
+                TextReader edges = new TextReader(in, edgesStart);
+                for (int i = 0; i < M; i++) {
+                    int u = edges.nextInt();
+                    int v = edges.nextInt();
+                    int w = edges.nextInt();
+                    int e = outFill[u]++;
+                    a[1].put(e, v);
+                    a[2].put(e, w);
+                    a[3].put(e, u);
+                    int rev = inFill[v]++;
+                    a[5].put(rev, u);
+                    a[6].put(rev, w);
+                    a[7].put(rev, e);
+                }
+                count++;
+                r = new TextReader(in, caseEnd);
+            }
+
+            IntBuffer header = map(ch, FileChannel.MapMode.READ_WRITE, 0, 3);
+            header.put(0, MAGIC).put(1, VERSION).put(2, count);
+            return count;
+        }
+    }
+
+    // edge sets: one bit per forward edge id, as CsrGraph.newEdgeSet
+    long[] newEdgeSet() {
+        return new long[(M + 63) >>> 6];
+    }
+
+    /**
+     * Main.dijkstra without prev[] lists, over the mapped arrays: forward
+     * from S, or with reverse on the reversed graph (distances to S). removed
+     * (forward edge ids) may be null; D >= 0 stops once D is settled.
+     */
+    void dijkstra(int S, int D, int[] dist, long[] removed, boolean reverse, IndexedPriorityQueue pq, boolean lazy) {
+        IntBuffer off = reverse ? revOffsets : offsets;
+        IntBuffer tgt = reverse ? revTargets : targets;
+        IntBuffer wgt = reverse ? revWeights : weights;
+
+        Arrays.fill(dist, INF);
+        dist[S] = 0;
+        if (lazy) {
+            pq.Insert(S, 0);
+        } else {
+            int[] items = new int[N];
+            int[] priorities = new int[N];
+            for (int v = 0; v < N; v++) {
+                items[v] = v;
+                priorities[v] = INF;
+            }
+            priorities[S] = 0;
+            pq.InsertAll(items, priorities, N);
+        }
+
+        boolean[] visited = new boolean[N];
+        while (!pq.isEmpty()) {
+            int u = pq.ExtractMinItem();
+            if (u == -1 || dist[u] == INF) break;
+            if (visited[u]) continue;
+            if (D >= 0 && visited[D] && dist[u] > dist[D]) break;
+            visited[u] = true;
+
+            for (int e = off.get(u), end = off.get(u + 1); e < end; e++) {
+                if (removed != null && CsrGraph.isSet(removed, reverse ? revIds.get(e) : e)) continue;
+                int v = tgt.get(e);
+                if (visited[v]) continue;
+                int alt = dist[u] + wgt.get(e);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    pq.InsertOrDecrease(v, alt);
+                }
+            }
+        }
+    }
+
+    /**
+     * The almost-shortest-path answer of Main for this case (INF for none),
+     * by distance labels as in Main.markShortestPathEdges.
+     */
+    int almostShortest(boolean lazy) {
+        int[] dS = new int[N];
+        int[] dD = new int[N];
+        dijkstra(S, lazy ? D : -1, dS, null, false, new MinHeapPriorityQueue(N), lazy);
+        if (dS[D] == INF) {
+            return INF;
+        }
+        dijkstra(D, lazy ? S : -1, dD, null, true, new MinHeapPriorityQueue(N), lazy);
+
+        int best = dS[D];
+        long[] removed = newEdgeSet();
+        for (int e = 0; e < M; e++) {
+            int u = sources.get(e);
+            int v = targets.get(e);
+            if (dS[u] != INF && dD[v] != INF && (long) dS[u] + weights.get(e) + dD[v] == best) {
+                CsrGraph.set(removed, e);
+            }
+        }
+        dijkstra(S, lazy ? D : -1, dS, removed, false, new MinHeapPriorityQueue(N), lazy);
+        return dS[D];
+    }
+
+    /**
+     * Whitespace-separated non-negative ints from a channel, starting at a
+     * byte offset; position() is the offset just past the last token read.
+     */
+    private static class TextReader {
+        private final InputStream in;
+        private final byte[] buf = new byte[1 << 16];
+        private int len;
+        private int idx;
+        private long consumed;
+
+        TextReader(FileChannel ch, long start) throws IOException {
+            ch.position(start);
+            in = Channels.newInputStream(ch);
+            consumed = start;
+        }
+
+        long position() {
+            return consumed + idx;
+        }
+
+        private int read() throws IOException {
+            if (idx == len) {
+                consumed += len;
+                len = in.read(buf, 0, buf.length);
+                idx = 0;
+                if (len <= 0) {
+                    len = 0;
+                    return -1;
+                }
+            }
+            return buf[idx++];
+        }
+
+        private int skipSpace() throws IOException {
+            int c = read();
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                c = read();
+            }
+            return c;
+        }
+
+        boolean hasNext() throws IOException {
+            int c = skipSpace();
+            if (c == -1) return false;
+            idx--;
+            return true;
+        }
+
+        int nextInt() throws IOException {
+            int c = skipSpace();
+            boolean negative = c == '-';
+            if (negative) c = read();
+            if (c < '0' || c > '9') {
+                throw new IOException("number expected at byte " + (position() - 1));
+            }
+            int x = 0;
+            while (c >= '0' && c <= '9') {
+                x = x * 10 + (c - '0');
+                c = read();
+            }
+            // leave the terminator unread so position() stays exact
+            if (c != -1) idx--;
+            return negative ? -x : x;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("convert")) {
+            long start = System.nanoTime();
+            int count = convert(Paths.get(args[1]), Paths.get(args[2]));
+            System.err.printf("%d case(s) written to %s in %.1f ms%n", count, args[2], (System.nanoTime() - start) / 1e6);
+        } else if (args.length >= 2 && args[0].equals("solve")) {
+            boolean lazy = false;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--lazy")) {
+                    lazy = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            StringBuilder out = new StringBuilder();
+            for (MappedCsrGraph g : open(Paths.get(args[1]))) {
+                int answer = g.almostShortest(lazy);
+                out.append(answer == INF ? -1 : answer).append('\n');
+            }
+            System.out.print(out);
+        } else {
+            throw new IllegalArgumentException("usage: java MappedCsrGraph convert input.txt graph.csr"
+                    + " | solve graph.csr [--lazy]");
+        }
+    }
+}
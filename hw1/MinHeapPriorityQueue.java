@@ -1,43 +1,87 @@
-import java.util.HashMap;
-import java.util.Map;
+public class MinHeapPriorityQueue implements IndexedPriorityQueue {
 
-public class MinHeapPriorityQueue {
+    // Items are dense ints 0..capacity-1. The heap is kept in two parallel
+    // arrays (1-based, like the textbook layout) so no node objects are created.
+    private int[] heapItem;
+    private int[] heapPriority;
+    private int size;
 
-    private static class HeapNode {
-        int item; 
-        int priority; 
+    // number of children per node; 2 is the classic binary heap. A wider heap
+    // is shallower, so Heapify_Up (decrease-key) walks fewer levels.
+    private final int arity;
 
-        HeapNode(int item, int priority) {
-            this.item = item;
-            this.priority = priority;
-        }
-        @Override
-        public String toString() {
-            return "(" + item + ", " + priority + ")";
-        }
-    }
+    // item -> current index in the heap arrays, 0 if the item is not in the heap
+    private int[] position;
 
-    private HeapNode[] heap;
-    private int size;
+    // arity of the heaps built without one (compare arities with HeapArityBenchmark)
+    public static final int DEFAULT_ARITY = 4;
 
-    // item -> current index in the heap array (for O(1) lookup)
-    private Map<Integer, Integer> position;
+    // operation counters, null (and not counted) unless setStats was called
+    private HeapStats stats;
 
     public MinHeapPriorityQueue(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    public MinHeapPriorityQueue(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
         StartHeap(capacity);
     }
 
+    // heap holding items[i] with priorities[i], built in O(n) (see BuildHeap)
+    public MinHeapPriorityQueue(int capacity, int[] items, int[] priorities) {
+        this(capacity, DEFAULT_ARITY, items, priorities);
+    }
+
+    public MinHeapPriorityQueue(int capacity, int arity, int[] items, int[] priorities) {
+        this(capacity, arity);
+        if (items.length != priorities.length) {
+            throw new IllegalArgumentException("items and priorities differ in length");
+        }
+        BuildHeap(items, priorities, items.length);
+    }
+
      // 3. StartHeap(N) – initialize / reset the heap to be empty with capacity N.
+    // With an unchanged capacity the arrays are kept and only the current items are cleared.
     public void StartHeap(int capacity) {
-        heap = new HeapNode[capacity + 1];
+        if (position != null && position.length == capacity) {
+            clear();
+            return;
+        }
+        heapItem = new int[capacity + 1];
+        heapPriority = new int[capacity + 1];
+        position = new int[capacity];
         size = 0;
-        position = new HashMap<>();
     }
 
-    // utils
-    private int parent(int i) { return i / 2; }
-    private int left(int i)   { return 2 * i; }
-    private int right(int i)  { return 2 * i + 1; }
+    private void clear() {
+        for (int i = 1; i <= size; i++) {
+            position[heapItem[i]] = 0;
+        }
+        size = 0;
+    }
+
+    // utils (1-based d-ary layout: children of i are firstChild(i) .. firstChild(i) + arity - 1)
+    private int parent(int i)     { return (i - 2) / arity + 1; }
+    private int firstChild(int i) { return arity * (i - 1) + 2; }
+
+    public int getArity() {
+        return arity;
+    }
+
+    // start counting into stats (null stops counting); returns the previous counters
+    public HeapStats setStats(HeapStats stats) {
+        HeapStats previous = this.stats;
+        this.stats = stats;
+        return previous;
+    }
+
+    public HeapStats getStats() {
+        return stats;
+    }
 
     public boolean isEmpty() {
         return size == 0;
@@ -47,73 +91,141 @@ public class MinHeapPriorityQueue {
         return size;
     }
 
-    private void swap(int i, int j) {
-        HeapNode temp = heap[i];
-        heap[i] = heap[j];
-        heap[j] = temp;
+    public boolean contains(int item) {
+        return item >= 0 && item < position.length && position[item] != 0;
+    }
 
-        position.put(heap[i].item, i);
-        position.put(heap[j].item, j);
+    // current priority of item, or Integer.MAX_VALUE if it is not in the heap
+    public int getPriority(int item) {
+        if (!contains(item)) {
+            return Integer.MAX_VALUE;
+        }
+        return heapPriority[position[item]];
+    }
+
+    private void swap(int i, int j) {
+        int tempItem = heapItem[i];
+        int tempPriority = heapPriority[i];
+        heapItem[i] = heapItem[j];
+        heapPriority[i] = heapPriority[j];
+        heapItem[j] = tempItem;
+        heapPriority[j] = tempPriority;
+
+        position[heapItem[i]] = i;
+        position[heapItem[j]] = j;
     }
 
 
     // 1. Heapify_Up(index) - move node at index up until heap property holds.
     private void Heapify_Up(int index) {
+        int levels = 0;
+        int swaps = 0;
         while (index > 1) {
+            levels++;
             int p = parent(index);
-            if (heap[index].priority < heap[p].priority) {
+            if (heapPriority[index] < heapPriority[p]) {
                 swap(index, p);
+                swaps++;
                 index = p;
             } else {
                 break;
             }
         }
+        if (stats != null) {
+            stats.siftUpLevels += levels;
+            stats.swaps += swaps;
+        }
     }
 
     // 2. Heapify_Down(index) – move node at index down until heap property holds.
     private void Heapify_Down(int index) {
+        int levels = 0;
+        int swaps = 0;
         while (true) {
-            int leftChild = left(index);
-            int rightChild = right(index);
+            levels++;
+            int child = firstChild(index);
+            int lastChild = Math.min(child + arity - 1, size);
             int smallest = index;
 
-            if (leftChild <= size && heap[leftChild].priority < heap[smallest].priority) {
-                smallest = leftChild;
-            }
-            if (rightChild <= size && heap[rightChild].priority < heap[smallest].priority) {
-                smallest = rightChild;
+            for (; child <= lastChild; child++) {
+                if (heapPriority[child] < heapPriority[smallest]) {
+                    smallest = child;
+                }
             }
             if (smallest != index) {
                 swap(index, smallest);
+                swaps++;
                 index = smallest;
             } else {
                 break;
             }
         }
+        if (stats != null) {
+            stats.siftDownLevels += levels;
+            stats.swaps += swaps;
+        }
     }
 
     // 4. Insert(item, value) – insert a new (item, priority) into the heap.
     public void Insert(int item, int priority) {
-        if (size >= heap.length - 1) {
+        append(item, priority);
+        Heapify_Up(size);
+    }
+
+    // put (item, priority) in the first free slot without restoring the heap property
+    private void append(int item, int priority) {
+        if (item < 0 || item >= position.length) {
+            throw new IllegalArgumentException("Item out of range: " + item);
+        }
+        if (size >= heapItem.length - 1) {
             throw new IllegalStateException("Heap is full");
         }
-        if (position.containsKey(item)) {
+        if (position[item] != 0) {
             throw new IllegalArgumentException("Item already present in heap: " + item);
         }
 
         size++;
-        heap[size] = new HeapNode(item, priority);
-        position.put(item, size);
-        Heapify_Up(size);
+        heapItem[size] = item;
+        heapPriority[size] = priority;
+        position[item] = size;
+        if (stats != null) {
+            stats.inserts++;
+        }
     }
 
+    // Heapify_Down every internal node, last one first: O(size) in total
+    private void rebuild() {
+        for (int i = parent(size); i >= 1; i--) {
+            Heapify_Down(i);
+        }
+    }
+
+    // true if sifting k nodes one by one (about k * depth steps) in a heap of n
+    // nodes costs more than one rebuild() of it
+    private boolean cheaperToRebuild(int k, int n) {
+        int depth = 0;
+        for (long level = 1, total = 0; total < n; level *= arity) {
+            total += level;
+            depth++;
+        }
+        return (long) k * depth > n;
+    }
 
-    // 5. FindMin() – return the minimum element without removing it
-    public HeapNode FindMin() {
+
+    // 5. FindMin() – return the item with minimum priority without removing it, -1 if empty
+    public int FindMin() {
         if (size == 0) {
-            return null;
+            return -1;
         }
-        return heap[1];
+        return heapItem[1];
+    }
+
+    // priority of the minimum element, Integer.MAX_VALUE if empty
+    public int FindMinPriority() {
+        if (size == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return heapPriority[1];
     }
 
     // 6. Delete(index) – remove the node at position index in O(log n)
@@ -122,71 +234,262 @@ public class MinHeapPriorityQueue {
             return;
         }
 
+        position[heapItem[index]] = 0;
+
         if (index == size) {
-            int item = heap[index].item;
-            position.remove(item);
-            heap[index] = null;
             size--;
             return;
         }
 
-        HeapNode nodeToDelete = heap[index];
-        HeapNode lastNode = heap[size];
-
         // move last node to index
-        heap[index] = lastNode;
-        heap[size] = null;
+        heapItem[index] = heapItem[size];
+        heapPriority[index] = heapPriority[size];
+        position[heapItem[index]] = index;
         size--;
 
-        // update position map
-        position.remove(nodeToDelete.item);
-        position.put(lastNode.item, index);
-
         // restore heap property
         int parentIndex = parent(index);
-        if (index > 1 && heap[index].priority < heap[parentIndex].priority) {
+        if (index > 1 && heapPriority[index] < heapPriority[parentIndex]) {
             Heapify_Up(index);
         } else {
             Heapify_Down(index);
         }
     }
 
-    // 7. ExtractMin() – remove and return the minimum element
-    public HeapNode ExtractMin() {
+    // 7. ExtractMin() – remove and return the item with minimum priority, -1 if empty
+    public int ExtractMin() {
         if (size == 0) {
-            return null;
+            return -1;
         }
-        HeapNode min = heap[1];
+        int min = heapItem[1];
         DeleteIndex(1);
+        if (stats != null) {
+            stats.extracts++;
+        }
         return min;
     }
 
+    // returns only the item with minimum priority, -1 if empty (IndexedPriorityQueue)
+    public int ExtractMinItem() {
+        return ExtractMin();
+    }
+
     // 8. Delete(item) – delete the node with the given item key
     public void Delete(int item) {
-        Integer index = position.get(item);
-        if (index == null) {
+        if (!contains(item)) {
             return; 
         }
-        DeleteIndex(index);
+        DeleteIndex(position[item]);
     }
 
     // 9. ChangePriority(item, newPriority) – change the priority of item
     public void ChangePriority(int item, int newPriority) {
-        Integer index = position.get(item);
-        if (index == null) {
+        if (!contains(item)) {
             return; 
         }
+        int index = position[item];
 
-        int oldPriority = heap[index].priority;
-        heap[index].priority = newPriority;
+        int oldPriority = heapPriority[index];
+        heapPriority[index] = newPriority;
 
         if (newPriority < oldPriority) {
+            if (stats != null) {
+                stats.changeUp++;
+            }
             Heapify_Up(index);
         } else if (newPriority > oldPriority) {
+            if (stats != null) {
+                stats.changeDown++;
+            }
             Heapify_Down(index);
         }
     }
 
+    // 10. InsertOrDecrease(item, newPriority) – insert item if absent, otherwise lower its
+    // priority if newPriority is smaller. Returns true if the heap changed.
+    public boolean InsertOrDecrease(int item, int newPriority) {
+        if (!contains(item)) {
+            Insert(item, newPriority);
+            return true;
+        }
+        int index = position[item];
+        if (newPriority >= heapPriority[index]) {
+            return false;
+        }
+        heapPriority[index] = newPriority;
+        if (stats != null) {
+            stats.changeUp++;
+        }
+        Heapify_Up(index);
+        return true;
+    }
+
+    // 11. BuildHeap(items, priorities, n) – replace the contents with the first n
+    // (item, priority) pairs in O(n) instead of n Insert calls. On a bad item the heap is left empty.
+    public void BuildHeap(int[] items, int[] priorities, int n) {
+        clear();
+        InsertAll(items, priorities, n);
+    }
+
+    // bulk Insert (IndexedPriorityQueue): appends all pairs and rebuilds when that is
+    // cheaper than sifting each one up. The batch is checked first, so on bad input (arrays
+    // shorter than n, an item out of range, already present or repeated, or no room)
+    // nothing is inserted.
+    public void InsertAll(int[] items, int[] priorities, int n) {
+        checkInsertAll(items, priorities, n);
+        if (!cheaperToRebuild(n, size + n)) {
+            for (int i = 0; i < n; i++) {
+                Insert(items[i], priorities[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            append(items[i], priorities[i]);
+        }
+        rebuild();
+    }
+
+    // throws, leaving the heap as it was, unless all n pairs can be inserted
+    private void checkInsertAll(int[] items, int[] priorities, int n) {
+        if (n < 0 || items.length < n || priorities.length < n) {
+            throw new IllegalArgumentException("batch of " + n + " needs that many items and priorities, got "
+                    + items.length + " and " + priorities.length);
+        }
+        if (n > heapItem.length - 1 - size) {
+            throw new IllegalStateException("Heap is full");
+        }
+        // mark the batch in position (-1) to catch repeats, then unmark it
+        int marked = 0;
+        try {
+            for (; marked < n; marked++) {
+                int item = items[marked];
+                if (item < 0 || item >= position.length) {
+                    throw new IllegalArgumentException("Item out of range: " + item);
+                }
+                if (position[item] == -1) {
+                    throw new IllegalArgumentException("Item repeated in batch: " + item);
+                }
+                if (position[item] != 0) {
+                    throw new IllegalArgumentException("Item already present in heap: " + item);
+                }
+                position[item] = -1;
+            }
+        } finally {
+            for (int i = 0; i < marked; i++) {
+                position[items[i]] = 0;
+            }
+        }
+    }
+
+    // 12. ChangePriority(items, newPriorities, n) – ChangePriority for the first n pairs.
+    // A large batch overwrites the priorities and rebuilds once. Items not in the heap are skipped.
+    public void ChangePriority(int[] items, int[] newPriorities, int n) {
+        if (!cheaperToRebuild(n, size)) {
+            for (int i = 0; i < n; i++) {
+                ChangePriority(items[i], newPriorities[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            if (contains(items[i])) {
+                int index = position[items[i]];
+                if (stats != null && newPriorities[i] != heapPriority[index]) {
+                    if (newPriorities[i] < heapPriority[index]) {
+                        stats.changeUp++;
+                    } else {
+                        stats.changeDown++;
+                    }
+                }
+                heapPriority[index] = newPriorities[i];
+            }
+        }
+        rebuild();
+    }
+
+    // 13. ExtractMin(out, k) – remove the min(k, size) items with the smallest priorities,
+    // store them in out in ascending order and return how many there were.
+    public int ExtractMin(int[] out, int k) {
+        k = Math.min(k, size);
+        if (!cheaperToRebuild(k, size)) {
+            for (int i = 0; i < k; i++) {
+                out[i] = heapItem[1];
+                DeleteIndex(1);
+            }
+            if (stats != null) {
+                stats.extracts += k;
+            }
+            return k;
+        }
+
+        // the k smallest form a subtree at the root: walk it in priority order with a small
+        // heap of (priority, index) keys, starting from the root and adding the children of each pick
+        long[] frontier = new long[k * (arity - 1) + 2];
+        int frontierSize = 0;
+        frontierSize = pushKey(frontier, frontierSize, key(1));
+        for (int i = 0; i < k; i++) {
+            int index = (int) frontier[0];
+            frontierSize = popKey(frontier, frontierSize);
+            out[i] = heapItem[index];
+            int child = firstChild(index);
+            int lastChild = Math.min(child + arity - 1, size);
+            for (; child <= lastChild; child++) {
+                frontierSize = pushKey(frontier, frontierSize, key(child));
+            }
+        }
+
+        // drop the picked items, close the gaps and restore the heap in one pass
+        for (int i = 0; i < k; i++) {
+            heapItem[position[out[i]]] = -1;
+            position[out[i]] = 0;
+        }
+        int kept = 0;
+        for (int i = 1; i <= size; i++) {
+            if (heapItem[i] != -1) {
+                kept++;
+                heapItem[kept] = heapItem[i];
+                heapPriority[kept] = heapPriority[i];
+                position[heapItem[kept]] = kept;
+            }
+        }
+        size = kept;
+        rebuild();
+        if (stats != null) {
+            stats.extracts += k;
+        }
+        return k;
+    }
+
+    // (priority, index) packed so that comparing the longs compares priorities first
+    private long key(int index) {
+        return ((long) heapPriority[index] << 32) | index;
+    }
+
+    // binary min-heap of longs in h[0 .. n-1]; both return the new n
+    private static int pushKey(long[] h, int n, long key) {
+        int i = n;
+        while (i > 0 && h[(i - 1) >>> 1] > key) {
+            h[i] = h[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        h[i] = key;
+        return n + 1;
+    }
+
+    private static int popKey(long[] h, int n) {
+        long last = h[--n];
+        int i = 0;
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= n) break;
+            if (c + 1 < n && h[c + 1] < h[c]) c++;
+            if (h[c] >= last) break;
+            h[i] = h[c];
+            i = c;
+        }
+        h[i] = last;
+        return n;
+    }
+
     // // test
     // public static void main(String[] args) {
     //     MinHeapPriorityQueue pq = new MinHeapPriorityQueue(10);
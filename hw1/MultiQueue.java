@@ -0,0 +1,211 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Relaxed concurrent priority queue over dense int items 0..capacity-1: a
+ * MultiQueue (Rihani, Sanders, Dementiev) of c * P MinHeapPriorityQueue
+ * shards, each behind its own lock.
+ *
+ * Insert puts the item into a random shard whose lock it gets with tryLock.
+ * ExtractMin looks at the cached minimum of two random shards, locks the one
+ * with the smaller minimum (tryLock, retrying elsewhere on contention) and
+ * pops it. ChangePriority and InsertOrDecrease go to the shard that holds
+ * the item (owner[item]) and wait for that shard's lock. Insert and
+ * ExtractMin never wait, except in the final emptiness scan of ExtractMin.
+ *
+ * Relaxation: ExtractMin returns an item that was the minimum of its shard,
+ * not necessarily the global minimum. With random placement and two-choice
+ * pops the expected rank error of a pop (how many smaller items are still
+ * queued) grows linearly with the number of shards; MultiQueueBenchmark
+ * prints it. With a single shard the queue is exact.
+ *
+ * ExtractMin returns -1 only after finding every shard empty while locking
+ * them one by one, so -1 is reliable once the producers are done; under
+ * concurrent inserts it only means "found empty a moment ago". Every
+ * inserted item is extracted exactly once.
+ *
+ * Each shard has the full item range, so memory is shards * O(capacity).
+ */
+public class MultiQueue implements IndexedPriorityQueue {
+
+    // shards per thread
+    public static final int DEFAULT_FACTOR = 2;
+
+    private static final class Shard {
+        final int index;
+        final ReentrantLock lock = new ReentrantLock();
+        final MinHeapPriorityQueue heap;
+        // heap.FindMinPriority(), published for the two-choice pop without taking the lock
+        volatile int top = Integer.MAX_VALUE;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.heap = new MinHeapPriorityQueue(capacity);
+        }
+
+        // call with the lock held, after every change to heap
+        void publish() {
+            top = heap.FindMinPriority();
+        }
+    }
+
+    private final Shard[] shards;
+    // item -> index of the shard holding it, -1 if the item is not queued
+    private final AtomicIntegerArray owner;
+
+    // c * threads shards, c = DEFAULT_FACTOR
+    public MultiQueue(int capacity, int threads) {
+        this(capacity, threads, DEFAULT_FACTOR);
+    }
+
+    public MultiQueue(int capacity, int threads, int factor) {
+        if (threads < 1 || factor < 1) {
+            throw new IllegalArgumentException("threads and factor must be at least 1: " + threads + ", " + factor);
+        }
+        shards = new Shard[threads * factor];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, capacity);
+        }
+        owner = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            owner.set(i, -1);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public boolean contains(int item) {
+        return item >= 0 && item < owner.length() && owner.get(item) >= 0;
+    }
+
+    // a snapshot: true if every shard was empty when it was looked at
+    public boolean isEmpty() {
+        for (Shard s : shards) {
+            if (s.top != Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // insert a new (item, priority); the item must not already be queued
+    public void Insert(int item, int priority) {
+        if (!tryInsert(item, priority)) {
+            throw new IllegalArgumentException("Item already present in queue: " + item);
+        }
+    }
+
+    // false if the item is already queued
+    private boolean tryInsert(int item, int priority) {
+        if (item < 0 || item >= owner.length()) {
+            throw new IllegalArgumentException("Item out of range: " + item);
+        }
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (true) {
+            Shard s = shards[rnd.nextInt(shards.length)];
+            if (!s.lock.tryLock()) continue;
+            try {
+                // claimed under the shard lock, so anyone who sees the owner and then locks finds the item
+                if (!owner.compareAndSet(item, -1, s.index)) {
+                    return false;
+                }
+                s.heap.Insert(item, priority);
+                s.publish();
+                return true;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    // remove and return an item of (relaxed) minimum priority, -1 if every shard is empty
+    public int ExtractMin() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < 2 * shards.length; attempt++) {
+            Shard a = shards[rnd.nextInt(shards.length)];
+            Shard b = shards[rnd.nextInt(shards.length)];
+            Shard s = a.top <= b.top ? a : b;
+            if (s.top == Integer.MAX_VALUE || !s.lock.tryLock()) continue;
+            try {
+                if (!s.heap.isEmpty()) {
+                    return pop(s);
+                }
+            } finally {
+                s.lock.unlock();
+            }
+        }
+
+        // mostly empty: visit every shard before giving up
+        for (Shard s : shards) {
+            s.lock.lock();
+            try {
+                if (!s.heap.isEmpty()) {
+                    return pop(s);
+                }
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return -1;
+    }
+
+    private int pop(Shard s) {
+        int item = s.heap.ExtractMin();
+        owner.set(item, -1);
+        s.publish();
+        return item;
+    }
+
+    // IndexedPriorityQueue name for ExtractMin
+    public int ExtractMinItem() {
+        return ExtractMin();
+    }
+
+    // change the priority of item; does nothing if the item is not queued
+    public void ChangePriority(int item, int newPriority) {
+        while (true) {
+            int q = contains(item) ? owner.get(item) : -1;
+            if (q < 0) {
+                return;
+            }
+            Shard s = shards[q];
+            s.lock.lock();
+            try {
+                // extracted (and maybe re-inserted elsewhere) while we waited: look again
+                if (owner.get(item) != q) continue;
+                s.heap.ChangePriority(item, newPriority);
+                s.publish();
+                return;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    // insert item if absent, otherwise lower its priority if newPriority is smaller;
+    // returns true if the queue changed
+    public boolean InsertOrDecrease(int item, int newPriority) {
+        while (true) {
+            int q = contains(item) ? owner.get(item) : -1;
+            if (q < 0) {
+                if (tryInsert(item, newPriority)) {
+                    return true;
+                }
+                continue;
+            }
+            Shard s = shards[q];
+            s.lock.lock();
+            try {
+                if (owner.get(item) != q) continue;
+                boolean changed = s.heap.InsertOrDecrease(item, newPriority);
+                s.publish();
+                return changed;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+}
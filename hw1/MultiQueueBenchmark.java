@@ -0,0 +1,206 @@
+import java.util.*;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention benchmark for MultiQueue against one MinHeapPriorityQueue
+ * behind a ReentrantLock and java.util.concurrent.PriorityBlockingQueue.
+ *
+ * Usage: java MultiQueueBenchmark
+ *
+ * Hold model: the queue starts with PREFILL items, then every thread
+ * repeatedly pops an item and pushes it back with a larger priority, OPS
+ * pop/push pairs per thread. The best of REPS runs is reported in million
+ * operations per second, after WARMUP untimed runs.
+ *
+ * The second table is MultiQueue's relaxation, measured on one thread: the
+ * mean and largest rank error (smaller items still queued at each pop) when
+ * draining a queue of RANK_ITEMS random priorities.
+ */
+public class MultiQueueBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int[] SHARDS = {1, 2, 4, 8, 16, 32};
+    private static final int PREFILL = 1 << 20;
+    private static final int OPS = 1 << 18;
+    private static final int MAX_STEP = 1000;
+    private static final int RANK_ITEMS = 1 << 20;
+    private static final int WARMUP = 1;
+    private static final int REPS = 3;
+
+    // the operations the hold model needs, priorities tracked by the caller
+    interface Queue {
+        void push(int item, int priority);
+
+        // item with its priority packed as (priority << 32) | item, -1 if empty
+        long pop();
+    }
+
+    static final class LockedHeap implements Queue {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final MinHeapPriorityQueue heap = new MinHeapPriorityQueue(PREFILL);
+
+        public void push(int item, int priority) {
+            lock.lock();
+            try {
+                heap.Insert(item, priority);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long pop() {
+            lock.lock();
+            try {
+                if (heap.isEmpty()) return -1;
+                int priority = heap.FindMinPriority();
+                return pack(heap.ExtractMin(), priority);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static final class Blocking implements Queue {
+        private final PriorityBlockingQueue<Long> pq = new PriorityBlockingQueue<>(PREFILL);
+
+        public void push(int item, int priority) {
+            pq.add(pack(item, priority));
+        }
+
+        public long pop() {
+            Long key = pq.poll();
+            return key == null ? -1 : key;
+        }
+    }
+
+    static final class Multi implements Queue {
+        private final MultiQueue mq;
+        // last priority of each item; only the thread holding the item touches it
+        private final int[] priorities = new int[PREFILL];
+
+        Multi(int threads) {
+            mq = new MultiQueue(PREFILL, threads);
+        }
+
+        public void push(int item, int priority) {
+            priorities[item] = priority;
+            mq.Insert(item, priority);
+        }
+
+        public long pop() {
+            int item = mq.ExtractMin();
+            return item == -1 ? -1 : pack(item, priorities[item]);
+        }
+    }
+
+    static long pack(int item, int priority) {
+        return ((long) priority << 32) | item;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-24s %8s %10s%n", "queue", "threads", "Mops/s");
+        for (int threads : THREADS) {
+            report("locked heap", threads, () -> new LockedHeap());
+            report("PriorityBlockingQueue", threads, () -> new Blocking());
+            report("MultiQueue c=" + MultiQueue.DEFAULT_FACTOR, threads, () -> new Multi(threads));
+        }
+
+        System.out.println();
+        System.out.printf("%-24s %8s %12s %12s%n", "MultiQueue", "shards", "mean rank", "max rank");
+        for (int shards : SHARDS) {
+            rankError(shards);
+        }
+    }
+
+    interface Factory {
+        Queue create();
+    }
+
+    private static void report(String name, int threads, Factory factory) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP + REPS; i++) {
+            long t = holdModel(factory.create(), threads);
+            if (i >= WARMUP) {
+                best = Math.min(best, t);
+            }
+        }
+        double ops = 2.0 * OPS * threads;
+        System.out.printf("%-24s %8d %10.2f%n", name, threads, ops / (best / 1e9) / 1e6);
+    }
+
+    // nanoseconds for every thread to do OPS pop/push pairs
+    private static long holdModel(Queue q, int threads) throws InterruptedException {
+        Random rnd = new Random(42);
+        for (int item = 0; item < PREFILL; item++) {
+            q.push(item, rnd.nextInt(MAX_STEP));
+        }
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers[t] = new Thread(() -> {
+                Random r = new Random(seed);
+                for (int i = 0; i < OPS; i++) {
+                    long key = q.pop();
+                    int item = (int) key;
+                    int priority = (int) (key >>> 32);
+                    q.push(item, priority + r.nextInt(MAX_STEP));
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread w : workers) {
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // drains RANK_ITEMS distinct priorities (item == priority) and counts smaller items left behind
+    private static void rankError(int shards) {
+        int n = RANK_ITEMS;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Random rnd = new Random(7);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        MultiQueue mq = new MultiQueue(n, shards, 1);
+        for (int item : order) {
+            mq.Insert(item, item);
+        }
+
+        // Fenwick tree over priorities still queued
+        int[] tree = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i]++;
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+
+        long total = 0;
+        long max = 0;
+        for (int k = 0; k < n; k++) {
+            int item = mq.ExtractMin();
+            long smaller = 0;
+            for (int i = item; i > 0; i -= i & -i) {
+                smaller += tree[i];
+            }
+            for (int i = item + 1; i <= n; i += i & -i) {
+                tree[i]--;
+            }
+            total += smaller;
+            max = Math.max(max, smaller);
+        }
+        System.out.printf("%-24s %8d %12.2f %12d%n", "", shards, (double) total / n, max);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Pairing heap over dense int items 0..capacity-1.
+ *
+ * The tree is stored in int arrays indexed by item (leftmost child, right
+ * sibling, and "prev" = left sibling or parent for a leftmost child), so no
+ * node objects are created. Insert and decrease-key are O(1): the node is cut
+ * out and linked with the root. ExtractMin does the standard two-pass pairing
+ * of the root's children, amortized O(log n).
+ */
+public class PairingHeap implements IndexedPriorityQueue {
+
+    private static final int NIL = -1;
+
+    private int[] key;
+    private int[] child;
+    private int[] next;
+    private int[] prev;
+    private boolean[] inHeap;
+
+    // holds the first-pass results of mergePairs so it does not allocate
+    private int[] scratch;
+
+    private int root;
+    private int size;
+
+    public PairingHeap(int capacity) {
+        StartHeap(capacity);
+    }
+
+    // initialize / reset the heap to be empty with capacity N
+    public void StartHeap(int capacity) {
+        key = new int[capacity];
+        child = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        inHeap = new boolean[capacity];
+        scratch = new int[capacity / 2 + 1];
+        root = NIL;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean contains(int item) {
+        return item >= 0 && item < inHeap.length && inHeap[item];
+    }
+
+    public void Insert(int item, int priority) {
+        if (item < 0 || item >= inHeap.length) {
+            throw new IllegalArgumentException("Item out of range: " + item);
+        }
+        if (inHeap[item]) {
+            throw new IllegalArgumentException("Item already present in heap: " + item);
+        }
+        key[item] = priority;
+        child[item] = next[item] = prev[item] = NIL;
+        inHeap[item] = true;
+        size++;
+        root = link(root, item);
+    }
+
+    // item with minimum priority without removing it, -1 if empty
+    public int FindMin() {
+        return root;
+    }
+
+    public int ExtractMinItem() {
+        if (size == 0) {
+            return -1;
+        }
+        int min = root;
+        root = mergePairs(child[min]);
+        child[min] = NIL;
+        inHeap[min] = false;
+        size--;
+        return min;
+    }
+
+    public void ChangePriority(int item, int newPriority) {
+        if (!contains(item)) {
+            return;
+        }
+        int oldPriority = key[item];
+        if (newPriority < oldPriority) {
+            key[item] = newPriority;
+            if (item != root) {
+                cut(item);
+                root = link(root, item);
+            }
+        } else if (newPriority > oldPriority) {
+            // the children may now be smaller than item: take item out and re-insert it
+            if (item == root) {
+                root = mergePairs(child[item]);
+            } else {
+                cut(item);
+                root = link(root, mergePairs(child[item]));
+            }
+            child[item] = NIL;
+            key[item] = newPriority;
+            root = link(root, item);
+        }
+    }
+
+    public boolean InsertOrDecrease(int item, int newPriority) {
+        if (!contains(item)) {
+            Insert(item, newPriority);
+            return true;
+        }
+        if (newPriority >= key[item]) {
+            return false;
+        }
+        ChangePriority(item, newPriority);
+        return true;
+    }
+
+    // link two detached trees (either may be NIL), return the new root
+    private int link(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (key[b] < key[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        // b becomes the leftmost child of a
+        next[b] = child[a];
+        if (child[a] != NIL) {
+            prev[child[a]] = b;
+        }
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    // detach the subtree rooted at item (item != root) from its parent / siblings
+    private void cut(int item) {
+        int p = prev[item];
+        if (child[p] == item) {
+            child[p] = next[item];
+        } else {
+            next[p] = next[item];
+        }
+        if (next[item] != NIL) {
+            prev[next[item]] = p;
+        }
+        prev[item] = next[item] = NIL;
+    }
+
+    // two-pass pairing of a sibling list, returns the root of the merged tree
+    private int mergePairs(int first) {
+        int count = 0;
+        while (first != NIL) {
+            int a = first;
+            int b = next[a];
+            first = (b == NIL) ? NIL : next[b];
+            prev[a] = next[a] = NIL;
+            if (b != NIL) {
+                prev[b] = next[b] = NIL;
+            }
+            scratch[count++] = link(a, b);
+        }
+        if (count == 0) {
+            return NIL;
+        }
+        int result = scratch[count - 1];
+        for (int i = count - 2; i >= 0; i--) {
+            result = link(scratch[i], result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package hw1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One full Main.dijkstra run (every vertex reachable from the source) per
+ * operation, on generated graphs:
+ *
+ *   sparse - N = 200 000, M = 1 000 000 random edges, weights 1..1000
+ *   grid   - 500 x 500 grid, both directions, weights 1..100
+ *   dense  - N = 2 000, M = 2 000 000 random edges, weights 1..1000
+ *
+ * for every queue backend, eager (all vertices preloaded) and lazy. The
+ * queue is built inside the operation, as Main does, so its arrays count in
+ * the GC profiler's allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class DijkstraBenchmark {
+
+    @Param({"sparse", "grid", "dense"})
+    public String graph;
+
+    @Param({"HEAP", "BUCKET", "PAIRING"})
+    public String queue;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private CsrGraph g;
+    private int[] dist;
+    private Main.QueueBackend backend;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(42);
+        switch (graph) {
+            case "sparse":
+                g = HeapArityBenchmark.randomGraph(graph, 200_000, 1_000_000, 1000, rnd).g;
+                break;
+            case "grid":
+                g = HeapArityBenchmark.gridGraph(graph, 500, 100, rnd).g;
+                break;
+            case "dense":
+                g = HeapArityBenchmark.randomGraph(graph, 2_000, 2_000_000, 1000, rnd).g;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown graph: " + graph);
+        }
+        dist = new int[g.N];
+        backend = Main.QueueBackend.valueOf(queue);
+    }
+
+    @Benchmark
+    public int dijkstra() {
+        Main.dijkstra(g, 0, -1, dist, null, null, false, Main.newQueue(backend, g), lazy);
+        return dist[g.N - 1];
+    }
+}
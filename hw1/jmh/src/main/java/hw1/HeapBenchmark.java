@@ -0,0 +1,155 @@
+package hw1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MinHeapPriorityQueue operations at several sizes and arities.
+ *
+ *   fillAndDrain       - size Inserts (Heapify_Up), then size ExtractMins (Heapify_Down);
+ *                        one operation is the whole pass, from an empty heap back to empty
+ *   buildAndDrain      - the same pass with BuildHeap instead of the Inserts
+ *   holdExtractInsert  - ExtractMin and re-Insert a little later, on a full heap
+ *   changePriority     - one ChangePriority on a full heap; mix picks the direction:
+ *                        decrease (Heapify_Up) or increase (Heapify_Down) by at most
+ *                        STEP, or a random new priority. The heap is refilled before
+ *                        every iteration, decrease with its priorities lifted by
+ *                        DECREASE_BASE, so an item does not run into 0 mid-iteration.
+ *
+ * Random inputs are drawn before the measurement and cycled through, so the
+ * generator is not what gets timed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class HeapBenchmark {
+
+    private static final int MAX_PRIORITY = 1 << 20;
+    // length of the pre-drawn random tables, a power of two
+    private static final int TABLE = 1 << 16;
+    // largest move of one decrease or increase in changePriority
+    private static final int STEP = 1024;
+    private static final int DECREASE_BASE = 1 << 30;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"2", "4", "8"})
+    public int arity;
+
+    private MinHeapPriorityQueue heap;
+    private int[] items;
+    private int[] priorities;
+    private int[] randomItems;
+    private int[] randomValues;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(42);
+        items = new int[size];
+        priorities = new int[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+            priorities[i] = rnd.nextInt(MAX_PRIORITY);
+        }
+        randomItems = new int[TABLE];
+        randomValues = new int[TABLE];
+        for (int i = 0; i < TABLE; i++) {
+            randomItems[i] = rnd.nextInt(size);
+            randomValues[i] = rnd.nextInt(MAX_PRIORITY);
+        }
+        heap = new MinHeapPriorityQueue(size, arity, items, priorities);
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (TABLE - 1);
+    }
+
+    @Benchmark
+    public int fillAndDrain() {
+        heap.StartHeap(size);
+        for (int i = 0; i < size; i++) {
+            heap.Insert(items[i], priorities[i]);
+        }
+        int last = 0;
+        while (!heap.isEmpty()) {
+            last = heap.ExtractMin();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int buildAndDrain() {
+        heap.BuildHeap(items, priorities, size);
+        int last = 0;
+        while (!heap.isEmpty()) {
+            last = heap.ExtractMin();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int holdExtractInsert() {
+        int priority = heap.FindMinPriority();
+        int item = heap.ExtractMin();
+        heap.Insert(item, priority + (randomValues[nextIndex()] & 1023));
+        return item;
+    }
+
+    // only changePriority takes the mix parameter
+    @State(Scope.Thread)
+    public static class Mix {
+        @Param({"decrease", "increase", "random"})
+        public String mix;
+
+        private int[] lifted;
+
+        @Setup(Level.Iteration)
+        public void refill(HeapBenchmark b) {
+            if (!mix.equals("decrease")) {
+                b.heap.BuildHeap(b.items, b.priorities, b.size);
+                return;
+            }
+            if (lifted == null) {
+                lifted = new int[b.size];
+                for (int i = 0; i < b.size; i++) {
+                    lifted[i] = b.priorities[i] + DECREASE_BASE;
+                }
+            }
+            b.heap.BuildHeap(b.items, lifted, b.size);
+        }
+    }
+
+    @Benchmark
+    public int changePriority(Mix m) {
+        int k = nextIndex();
+        int item = randomItems[k];
+        int old = heap.getPriority(item);
+        int value;
+        switch (m.mix) {
+            case "decrease":
+                // skipped rather than turned into an increase once the item is at 0
+                if (old == 0) {
+                    return old;
+                }
+                value = old - 1 - randomValues[k] % Math.min(old, STEP);
+                break;
+            case "increase":
+                if (old == Integer.MAX_VALUE) {
+                    return old;
+                }
+                value = old + 1 + randomValues[k] % Math.min(Integer.MAX_VALUE - old, STEP);
+                break;
+            default:
+                value = randomValues[k];
+        }
+        heap.ChangePriority(item, value);
+        return value;
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+
+// Pentomino tiling counter for boards of at most 64 cells, on bitboards instead
+// of dancing links.
+//
+// Every placement from buildExactCoverMatrix becomes one long mask of the cells
+// it covers. Cells are numbered column by column (bit c * rows + r), so the
+// lowest empty cell walks down the short side of the board and dead ends show
+// up early. A placement covering the lowest empty cell must have it as its own
+// lowest cell, so placements are grouped by lowest cell and the search only
+// tries the group of the current lowest empty cell, checking the board with one
+// AND and the pieces already used with an int bitmask.
+//
+// Same placements as the DLX path, so the same counts (2, 368, 1010, 2339 for
+// n = 3..6 with PentominoPieces.SHAPES).
+public class BitboardSolver {
+
+    private final long full;
+    // placements whose lowest cell is i are masks[start[i] .. start[i+1]-1]
+    private final int[] start;
+    private final long[] masks;
+    private final int[] pieces;
+
+    private long solutions;
+
+    public BitboardSolver(int rows, int cols, int[][][] shapes) {
+        this(rows, cols, PentominoSolver.buildExactCoverMatrix(rows, cols, shapes));
+        if (shapes.length != PentominoSolver.NUM_PIECES) {
+            throw new IllegalArgumentException("expected " + PentominoSolver.NUM_PIECES + " pieces: " + shapes.length);
+        }
+    }
+
+    // from a buildExactCoverMatrix result, possibly filtered (e.g. by breakSymmetry)
+    public BitboardSolver(int rows, int cols, ArrayList<ArrayList<Integer>> matrix) {
+        int numCells = rows * cols;
+        if (numCells > 64) {
+            throw new IllegalArgumentException("board has more than 64 cells: " + rows + "x" + cols);
+        }
+        full = numCells == 64 ? -1L : (1L << numCells) - 1;
+
+        int n = matrix.size();
+        long[] rowMask = new long[n];
+        int[] rowLowest = new int[n];
+        start = new int[numCells + 1];
+        for (int i = 0; i < n; i++) {
+            ArrayList<Integer> row = matrix.get(i);
+            long mask = 0;
+            for (int k = 1; k < row.size(); k++) {
+                int cell = row.get(k) - PentominoSolver.NUM_PIECES;
+                mask |= 1L << ((cell % cols) * rows + cell / cols);
+            }
+            rowMask[i] = mask;
+            rowLowest[i] = Long.numberOfTrailingZeros(mask);
+            start[rowLowest[i] + 1]++;
+        }
+        for (int i = 0; i < numCells; i++) {
+            start[i + 1] += start[i];
+        }
+
+        masks = new long[n];
+        pieces = new int[n];
+        int[] fill = start.clone();
+        for (int i = 0; i < n; i++) {
+            int slot = fill[rowLowest[i]]++;
+            masks[slot] = rowMask[i];
+            pieces[slot] = matrix.get(i).get(0);
+        }
+    }
+
+    public long count() {
+        solutions = 0;
+        search(0, 0);
+        return solutions;
+    }
+
+    public long getNumberOfSolutions() {
+        return solutions;
+    }
+
+    private void search(long board, int used) {
+        if (board == full) {
+            solutions++;
+            return;
+        }
+        int cell = Long.numberOfTrailingZeros(~board);
+        for (int p = start[cell], end = start[cell + 1]; p < end; p++) {
+            int bit = 1 << pieces[p];
+            if ((used & bit) != 0 || (board & masks[p]) != 0) continue;
+            search(board | masks[p], used | bit);
+        }
+    }
+}
@@ -1,5 +1,4 @@
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class DLX {
@@ -7,6 +6,7 @@ public class DLX {
     class DataNode {
         DataNode L, R, U, D;
         ColumnNode C;
+        int row = -1; // index of the matrix row this node belongs to
         
         public DataNode() {
             L = R = U = D = this;
@@ -83,15 +83,32 @@ public class DLX {
         }
     }
 
+    // Receives each solution while the search runs. rows[0..length-1] are the
+    // matrix row indices of the chosen rows; the array is reused, so copy it to keep it.
+    public interface SolutionListener {
+        void onSolution(int[] rows, int length);
+    }
+
     private ColumnNode head;
     private List<ColumnNode> columnNodesList;
     private int solutions;
-    private LinkedList<DataNode> solution;
+    // the rows chosen on the current search path, solution[0..k-1] at depth k
+    private DataNode[] solution;
+    private int[] solutionRows;
+
+    private SolutionListener listener;
+    private int limit;
+    private long deadline;
+    private int nodesUntilClockCheck;
+    private volatile boolean cancelled;
+    private boolean stopped;
+
+    // search nodes between System.nanoTime() calls when a timeout is set
+    private static final int CLOCK_CHECK_INTERVAL = 1 << 12;
     
     private DLX() {
         head = new ColumnNode("head");
         columnNodesList = new ArrayList<>();
-        solution = new LinkedList<>();
     }
     
     public DLX(int numberOfCols, ArrayList<ArrayList<Integer>> matrix) {
@@ -107,8 +124,32 @@ public class DLX {
     }
 
     public void run() {
+        run(null, 0, 0);
+    }
+
+    // Streams every solution to listener (may be null to just count) and stops
+    // early after limit solutions (0 for no limit), after timeoutMillis (0 for
+    // none) or once cancel() is called. Nothing is kept per solution.
+    public void run(SolutionListener listener, int limit, long timeoutMillis) {
+        this.listener = listener;
+        this.limit = limit;
+        this.deadline = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000 : 0;
+        nodesUntilClockCheck = CLOCK_CHECK_INTERVAL;
+        cancelled = false;
+        stopped = false;
         solutions = 0;
         search(0);
+        this.listener = null;
+    }
+
+    // stops a running search soon; safe to call from the listener or another thread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // false if the last run stopped early (limit, timeout or cancel)
+    public boolean isComplete() {
+        return !stopped;
     }
     
     public int getNumberOfSolutions() {
@@ -117,10 +158,23 @@ public class DLX {
     
 // implementation of D. Knuth's Algorithm X
 private void search(int k) {
+    if (stopped || shouldStop()) {
+        stopped = true;
+        return;
+    }
+
     // termination: if there are no columns left,find solution
     if (head.R == head) {
         solutions++;
-        // printSolution();
+        if (listener != null) {
+            for (int i = 0; i < k; i++) {
+                solutionRows[i] = solution[i].row;
+            }
+            listener.onSolution(solutionRows, k);
+        }
+        if (limit > 0 && solutions >= limit) {
+            stopped = true;
+        }
         return;
     }
 
@@ -132,8 +186,8 @@ private void search(int k) {
     c.cover();
 
     // For each row r
-    for (DataNode r = c.D; r != c; r = r.D) {
-        solution.add(r);
+    for (DataNode r = c.D; r != c && !stopped; r = r.D) {
+        solution[k] = r;
       
         for (DataNode j = r.R; j != r; j = j.R) {
             j.C.cover();
@@ -141,7 +195,6 @@ private void search(int k) {
 
         // recurse
         search(k + 1);
-        solution.removeLast();
 
         for (DataNode j = r.L; j != r; j = j.L) {
             j.C.uncover();
@@ -152,6 +205,17 @@ private void search(int k) {
     c.uncover();
 }
 
+    private boolean shouldStop() {
+        if (cancelled) {
+            return true;
+        }
+        if (deadline != 0 && --nodesUntilClockCheck == 0) {
+            nodesUntilClockCheck = CLOCK_CHECK_INTERVAL;
+            return System.nanoTime() - deadline > 0;
+        }
+        return false;
+    }
+
     // select the column with least dataNodes per p. 6 of D. Knuth's 2000 paper
     private ColumnNode selectColumn() {
         int min = Integer.MAX_VALUE;
@@ -191,12 +255,16 @@ private void search(int k) {
     // create dancing links data structure from sparse matrix
     private void buildDancingLinks(ArrayList<ArrayList<Integer>> matrix) {
         int nRows = matrix.size();
+        // a solution uses each column once, so it has at most one row per column
+        solution = new DataNode[columnNodesList.size()];
+        solutionRows = new int[columnNodesList.size()];
         
         for (int r = 0; r < nRows; r++) {
             DataNode temp = null;
             for (Integer i : matrix.get(r)) {
                 ColumnNode colHead = columnNodesList.get(i);
                 DataNode newNode = new DataNode(colHead);
+                newNode.row = r;
                 if (temp == null)
                     temp = newNode;
                 colHead.U.linkDown(newNode);
@@ -205,17 +273,4 @@ private void search(int k) {
             }
         }
     }
-    
-    private void printSolution() {
-        for (DataNode row : solution) {
-            while (columnNodesList.indexOf(row.C) > 11)
-                row = row.R;
-            StringBuilder sb = new StringBuilder(row.C.name + " ");
-            for (DataNode node = row.R; node != row; node = node.R) {
-                sb.append(node.C.name + " ");
-            }
-            System.out.println(sb);
-        }
-        System.out.println();
-    }
 }
@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Array-based dancing links, laid out like D. Knuth's DLX1 (TAOCP 7.2.2.1).
+// Same input and counts as DLX, but every link is an int index into flat arrays
+// instead of a DataNode/ColumnNode reference.
+//
+// Nodes 1..numItems are the item (column) headers, 0 is the root; the active
+// items form a circular list through llink/rlink. Each matrix row is stored as
+// consecutive nodes, with a spacer node between rows. For a row node top[p] is
+// its header; for a header top[i] is the column size; for a spacer top[p] <= 0
+// (minus the row number, see rowOf), ulink[p] is the first node of the row
+// before it and dlink[p] the last node of the row after it. Rows never change,
+// so walking along one uses the fixed circular links left/right instead of
+// testing for a spacer at every step.
+public class DLX1 {
+
+    private final int numItems;
+    private final int[] llink;
+    private final int[] rlink;
+    private int[] top;
+    private int[] ulink;
+    private int[] dlink;
+    // circular links within a row, shared by copies
+    private int[] left;
+    private int[] right;
+    private int numNodes;
+
+    private long solutions;
+
+    public DLX1(int numberOfCols, ArrayList<ArrayList<Integer>> matrix) {
+        numItems = numberOfCols;
+        llink = new int[numItems + 1];
+        rlink = new int[numItems + 1];
+        for (int i = 0; i <= numItems; i++) {
+            llink[i] = i == 0 ? numItems : i - 1;
+            rlink[i] = i == numItems ? 0 : i + 1;
+        }
+
+        int size = numItems + 2;
+        for (ArrayList<Integer> row : matrix) {
+            size += row.size() + 1;
+        }
+        top = new int[size];
+        ulink = new int[size];
+        dlink = new int[size];
+        left = new int[size];
+        right = new int[size];
+        for (int i = 1; i <= numItems; i++) {
+            ulink[i] = dlink[i] = i;
+        }
+        buildRows(matrix);
+    }
+
+    // append the rows below the headers, each followed by a spacer
+    private void buildRows(ArrayList<ArrayList<Integer>> matrix) {
+        int spacer = numItems + 1;
+        int p = spacer + 1;
+        int rowNumber = 0;
+        for (ArrayList<Integer> row : matrix) {
+            if (row.isEmpty()) {
+                continue;
+            }
+            int first = p;
+            for (Integer col : row) {
+                int item = col + 1;
+                top[p] = item;
+                top[item]++;
+                int last = ulink[item];
+                ulink[p] = last;
+                dlink[p] = item;
+                dlink[last] = p;
+                ulink[item] = p;
+                p++;
+            }
+            for (int q = first; q < p; q++) {
+                left[q] = q == first ? p - 1 : q - 1;
+                right[q] = q == p - 1 ? first : q + 1;
+            }
+            dlink[spacer] = p - 1;
+            spacer = p;
+            top[spacer] = -(++rowNumber);
+            ulink[spacer] = first;
+            p++;
+        }
+        numNodes = p;
+    }
+
+    // an independent copy of the current link state, for another thread
+    DLX1(DLX1 other) {
+        numItems = other.numItems;
+        llink = other.llink.clone();
+        rlink = other.rlink.clone();
+        top = other.top.clone();
+        ulink = other.ulink.clone();
+        dlink = other.dlink.clone();
+        left = other.left;
+        right = other.right;
+        numNodes = other.numNodes;
+    }
+
+    public void run() {
+        solutions = 0;
+        search(0);
+    }
+
+    // solutions of the current (partly covered) state, which is left as it was
+    long count() {
+        long before = solutions;
+        search(0);
+        return solutions - before;
+    }
+
+    // cover the columns of row node r, as search does when it picks r
+    void choose(int r) {
+        cover(top[r]);
+        for (int p = next(r); p != r; p = next(p)) {
+            cover(top[p]);
+        }
+    }
+
+    // undo choose(r); rows must be unchosen in reverse order
+    void unchoose(int r) {
+        for (int p = prev(r); p != r; p = prev(p)) {
+            uncover(top[p]);
+        }
+        uncover(top[r]);
+    }
+
+    // true once every column is covered
+    boolean isSolved() {
+        return rlink[0] == 0;
+    }
+
+    // sets bit i of bits for every active (uncovered) item i, clearing the rest;
+    // the active items alone determine the rest of the problem
+    void activeItems(long[] bits) {
+        Arrays.fill(bits, 0);
+        for (int i = rlink[0]; i != 0; i = rlink[i]) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    // index of the matrix row that node p belongs to (empty rows not counted)
+    int rowOf(int p) {
+        while (top[p] > 0) {
+            p++;
+        }
+        return -top[p] - 1;
+    }
+
+    // row nodes of the column search would branch on next, in search order;
+    // empty for a dead end
+    int[] branchRows() {
+        int c = selectColumn();
+        if (c == 0) {
+            return new int[0];
+        }
+        int[] rows = new int[top[c]];
+        int k = 0;
+        for (int r = dlink[c]; r != c; r = dlink[r]) {
+            rows[k++] = r;
+        }
+        return rows;
+    }
+
+    public long getNumberOfSolutions() {
+        return solutions;
+    }
+
+    // nodes used, headers and spacers included
+    public int getNumberOfNodes() {
+        return numNodes;
+    }
+
+    // Algorithm X, in the same order as DLX.search
+    private void search(int k) {
+        if (rlink[0] == 0) {
+            solutions++;
+            return;
+        }
+
+        int c = selectColumn();
+        if (c == 0) {
+            return;
+        }
+
+        cover(c);
+        for (int r = dlink[c]; r != c; r = dlink[r]) {
+            for (int p = next(r); p != r; p = next(p)) {
+                cover(top[p]);
+            }
+
+            search(k + 1);
+
+            for (int p = prev(r); p != r; p = prev(p)) {
+                uncover(top[p]);
+            }
+        }
+        uncover(c);
+    }
+
+    // first item with the fewest rows, 0 if none is left
+    private int selectColumn() {
+        int min = Integer.MAX_VALUE;
+        int best = 0;
+        for (int i = rlink[0]; i != 0; i = rlink[i]) {
+            if (top[i] < min) {
+                min = top[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // node to the right of p in its row, wrapping around
+    private int next(int p) {
+        return right[p];
+    }
+
+    // node to the left of p in its row, wrapping around
+    private int prev(int p) {
+        return left[p];
+    }
+
+    private void cover(int i) {
+        for (int p = dlink[i]; p != i; p = dlink[p]) {
+            hide(p);
+        }
+        int l = llink[i];
+        int r = rlink[i];
+        rlink[l] = r;
+        llink[r] = l;
+    }
+
+    private void uncover(int i) {
+        int l = llink[i];
+        int r = rlink[i];
+        rlink[l] = i;
+        llink[r] = i;
+        for (int p = ulink[i]; p != i; p = ulink[p]) {
+            unhide(p);
+        }
+    }
+
+    // remove the other nodes of p's row from their columns
+    private void hide(int p) {
+        for (int q = right[p]; q != p; q = right[q]) {
+            int u = ulink[q];
+            int d = dlink[q];
+            dlink[u] = d;
+            ulink[d] = u;
+            top[top[q]]--;
+        }
+    }
+
+    private void unhide(int p) {
+        for (int q = left[p]; q != p; q = left[q]) {
+            int u = ulink[q];
+            int d = dlink[q];
+            dlink[u] = q;
+            ulink[d] = q;
+            top[top[q]]++;
+        }
+    }
+}
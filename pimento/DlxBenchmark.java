@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+// Compares the object-based DLX with the array-based DLX1, ParallelDLX on
+// every core and BitboardSolver, on the pentomino boards 3x20, 4x15, 5x12 and
+// 6x10 (n = 3..6 of PentominoSolver).
+//
+// Usage: java DlxBenchmark [reps]
+// Every engine is built from the same buildExactCoverMatrix output; the table
+// shows the best of reps runs (build + search) in ms and the solution counts,
+// which must agree. Each engine solves the 3x20 board once first, as JIT
+// warm-up.
+public class DlxBenchmark {
+
+    public static void main(String[] args) {
+        int reps = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        solveDlx(3);
+        solveDlx1(3);
+        solveParallel(3, pool);
+        solveBitboard(3);
+
+        System.out.printf("%-8s %10s %12s %12s %8s %16s %12s%n", "board", "solutions", "DLX ms", "DLX1 ms", "speedup",
+                "parallel(" + threads + ") ms", "bitboard ms");
+        for (int n = 3; n <= 6; n++) {
+            long bestDlx = Long.MAX_VALUE;
+            long bestDlx1 = Long.MAX_VALUE;
+            long bestParallel = Long.MAX_VALUE;
+            long bestBitboard = Long.MAX_VALUE;
+            long countDlx = 0;
+            long countDlx1 = 0;
+            long countParallel = 0;
+            long countBitboard = 0;
+            for (int i = 0; i < reps; i++) {
+                long start = System.nanoTime();
+                countDlx = solveDlx(n);
+                bestDlx = Math.min(bestDlx, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                countDlx1 = solveDlx1(n);
+                bestDlx1 = Math.min(bestDlx1, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                countParallel = solveParallel(n, pool);
+                bestParallel = Math.min(bestParallel, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                countBitboard = solveBitboard(n);
+                bestBitboard = Math.min(bestBitboard, System.nanoTime() - start);
+            }
+            if (countDlx != countDlx1 || countDlx != countParallel || countDlx != countBitboard) {
+                throw new IllegalStateException("counts differ on n = " + n + ": " + countDlx + " vs "
+                        + countDlx1 + " vs " + countParallel + " vs " + countBitboard);
+            }
+            System.out.printf("%-8s %10d %12.1f %12.1f %8.2f %16.1f %12.1f%n", n + "x" + (60 / n), countDlx,
+                    bestDlx / 1e6, bestDlx1 / 1e6, (double) bestDlx / bestDlx1, bestParallel / 1e6,
+                    bestBitboard / 1e6);
+        }
+        pool.shutdown();
+    }
+
+    private static ArrayList<ArrayList<Integer>> matrix(int n) {
+        return PentominoSolver.buildExactCoverMatrix(n, 60 / n, PentominoPieces.SHAPES);
+    }
+
+    private static long solveDlx(int n) {
+        DLX dlx = new DLX(PentominoSolver.NUM_PIECES + 60, matrix(n));
+        dlx.run();
+        return dlx.getNumberOfSolutions();
+    }
+
+    private static long solveParallel(int n, ForkJoinPool pool) {
+        return new ParallelDLX(PentominoSolver.NUM_PIECES + 60, matrix(n)).count(pool);
+    }
+
+    private static long solveBitboard(int n) {
+        return new BitboardSolver(n, 60 / n, PentominoPieces.SHAPES).count();
+    }
+
+    private static long solveDlx1(int n) {
+        DLX1 dlx = new DLX1(PentominoSolver.NUM_PIECES + 60, matrix(n));
+        dlx.run();
+        return dlx.getNumberOfSolutions();
+    }
+}
@@ -0,0 +1,305 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Memoized solution counting on top of DLX1, after D. Knuth's "dancing with
+// ZDDs" (DXZ, TAOCP 7.2.2.1).
+//
+// Which rows are still available depends only on which items are still
+// active: a row survives exactly when none of its items has been covered. So
+// the rest of the problem is a function of the active item set, and plain
+// search, which reaches the same set through different row choices (two pieces
+// placed in either order, say), counts the same subtree again and again. Here
+// every subproblem is keyed on its active items as a bitset (DLX1.activeItems)
+// and its count is kept in a fixed-size hash table, so a repeated subproblem
+// costs one lookup.
+//
+// The table has 2^cacheBits entries and never grows. A key is looked up in
+// WAYS consecutive slots from its hash; when all of them are taken, the entry
+// that took the fewest search nodes to compute is evicted, so cheap results
+// make way and expensive ones stay. An evicted subproblem is just searched
+// again, so the counts are exact whatever the table size.
+//
+// With buildZdd, the solutions are also collected as a DAG in the style of a
+// ZDD: a node is a row, its HI branch is the node of the subproblem left after
+// choosing the row and its LO branch is the next row of the same branching
+// column; 0 is the empty family and 1 the family holding the empty set. The
+// node of a memoized subproblem is shared by every path that reaches it, so the
+// DAG can be far smaller than the list of solutions. It is neither ordered nor
+// reduced like a canonical ZDD, and rows are numbered as in DLX1.rowOf.
+//
+// Usage: java MemoDLX [n | RxC] [--cache-bits=B] [--zdd]
+// n = 3..6 counts the pentomino board of PentominoSolver; RxC counts the domino
+// tilings of that board (12988816 for 8x8), where memoizing pays off most.
+public class MemoDLX {
+
+    public static final int DEFAULT_CACHE_BITS = 20;
+    private static final int WAYS = 4;
+
+    private final DLX1 dlx;
+    private final int words;
+    private final int cacheBits;
+    private final int mask;
+    // entry e holds keys[e * words ..], its count, and work == 0 when it is empty
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] work;
+    private final int[] zddOf;
+
+    private final boolean buildZdd;
+    private int[] zddRow = new int[1 << 10];
+    private int[] zddLo = new int[1 << 10];
+    private int[] zddHi = new int[1 << 10];
+    private int zddSize = 2;
+    private int lastZdd;
+
+    private long nodes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MemoDLX(int numberOfCols, ArrayList<ArrayList<Integer>> matrix) {
+        this(numberOfCols, matrix, DEFAULT_CACHE_BITS, false);
+    }
+
+    public MemoDLX(int numberOfCols, ArrayList<ArrayList<Integer>> matrix, int cacheBits, boolean buildZdd) {
+        if (cacheBits < 2 || cacheBits > 26) {
+            throw new IllegalArgumentException("cacheBits must be in 2..26: " + cacheBits);
+        }
+        this.dlx = new DLX1(numberOfCols, matrix);
+        this.words = (numberOfCols >>> 6) + 1;
+        this.cacheBits = cacheBits;
+        this.mask = (1 << cacheBits) - 1;
+        this.keys = new long[(mask + 1) * words];
+        this.counts = new long[mask + 1];
+        this.work = new long[mask + 1];
+        this.zddOf = buildZdd ? new int[mask + 1] : null;
+        this.buildZdd = buildZdd;
+    }
+
+    // number of exact covers; with buildZdd, getZdd() is their DAG afterwards
+    public long count() {
+        // node ids of an earlier run would point into the reset DAG
+        Arrays.fill(work, 0);
+        zddSize = 2;
+        return count(new long[words]);
+    }
+
+    private long count(long[] key) {
+        nodes++;
+        if (dlx.isSolved()) {
+            lastZdd = 1;
+            return 1;
+        }
+        dlx.activeItems(key);
+        int slot = find(key);
+        if (slot >= 0) {
+            hits++;
+            lastZdd = buildZdd ? zddOf[slot] : 0;
+            return counts[slot];
+        }
+        misses++;
+
+        long start = nodes;
+        int[] rows = dlx.branchRows();
+        long total = 0;
+        int[] his = buildZdd ? new int[rows.length] : null;
+        long[] sub = new long[words];
+        for (int i = 0; i < rows.length; i++) {
+            dlx.choose(rows[i]);
+            total += count(sub);
+            dlx.unchoose(rows[i]);
+            if (buildZdd) {
+                his[i] = lastZdd;
+            }
+        }
+
+        int zdd = 0;
+        if (buildZdd) {
+            for (int i = rows.length - 1; i >= 0; i--) {
+                if (his[i] != 0) {
+                    zdd = newNode(dlx.rowOf(rows[i]), zdd, his[i]);
+                }
+            }
+        }
+        // the children built their keys in sub, so key is still this subproblem's;
+        // a dead end costs this one node, and 0 would mark the slot empty
+        store(key, total, nodes - start + 1, zdd);
+        lastZdd = zdd;
+        return total;
+    }
+
+    // first slot of key's probe window: the top cacheBits bits of a murmur3
+    // fmix64 finalized hash, since active-item keys differ in few bits
+    private int hash(long[] key) {
+        long h = 0;
+        for (long w : key) {
+            h = (h ^ w) * 0x9E3779B97F4A7C15L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) (h >>> (64 - cacheBits));
+    }
+
+    // slot holding key, -1 if it is not in the table
+    private int find(long[] key) {
+        int home = hash(key);
+        for (int j = 0; j < WAYS; j++) {
+            int e = (home + j) & mask;
+            if (work[e] != 0 && Arrays.equals(keys, e * words, (e + 1) * words, key, 0, words)) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    // into an empty slot of key's ways, else over the cheapest entry there
+    private void store(long[] key, long count, long cost, int zdd) {
+        int home = hash(key);
+        int victim = -1;
+        for (int j = 0; j < WAYS; j++) {
+            int e = (home + j) & mask;
+            if (work[e] == 0) {
+                victim = e;
+                break;
+            }
+            if (victim < 0 || work[e] < work[victim]) {
+                victim = e;
+            }
+        }
+        if (work[victim] != 0) {
+            evictions++;
+        }
+        System.arraycopy(key, 0, keys, victim * words, words);
+        counts[victim] = count;
+        work[victim] = cost;
+        if (buildZdd) {
+            zddOf[victim] = zdd;
+        }
+    }
+
+    private int newNode(int row, int lo, int hi) {
+        if (zddSize == zddRow.length) {
+            zddRow = Arrays.copyOf(zddRow, zddSize * 2);
+            zddLo = Arrays.copyOf(zddLo, zddSize * 2);
+            zddHi = Arrays.copyOf(zddHi, zddSize * 2);
+        }
+        zddRow[zddSize] = row;
+        zddLo[zddSize] = lo;
+        zddHi[zddSize] = hi;
+        return zddSize++;
+    }
+
+    // root of the solution DAG from the last count(), 0 if there is none
+    public int getZdd() {
+        return buildZdd ? lastZdd : 0;
+    }
+
+    // DAG nodes, the two terminals included
+    public int getZddSize() {
+        return zddSize;
+    }
+
+    // solutions in the DAG below root; children are made before their parents,
+    // so one pass in creation order counts every node
+    public long countZdd(int root) {
+        long[] paths = new long[zddSize];
+        paths[1] = 1;
+        for (int z = 2; z <= root; z++) {
+            paths[z] = paths[zddLo[z]] + paths[zddHi[z]];
+        }
+        return paths[root];
+    }
+
+    // one solution through the DAG, as matrix row indices: the first row of
+    // every LO chain (the empty array when root is 1)
+    public int[] firstSolution(int root) {
+        if (root == 0) {
+            throw new IllegalArgumentException("the family is empty");
+        }
+        int[] rows = new int[0];
+        for (int z = root; z != 1; z = zddHi[z]) {
+            rows = Arrays.copyOf(rows, rows.length + 1);
+            rows[rows.length - 1] = zddRow[z];
+        }
+        return rows;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public static void main(String[] args) {
+        String board = "6";
+        int cacheBits = DEFAULT_CACHE_BITS;
+        boolean zdd = false;
+        for (String arg : args) {
+            if (arg.startsWith("--cache-bits=")) {
+                cacheBits = Integer.parseInt(arg.substring("--cache-bits=".length()));
+            } else if (arg.equals("--zdd")) {
+                zdd = true;
+            } else if (!arg.startsWith("--")) {
+                board = arg;
+            } else {
+                System.err.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        int numCols;
+        ArrayList<ArrayList<Integer>> matrix;
+        if (board.contains("x")) {
+            String[] rc = board.split("x");
+            int rows = Integer.parseInt(rc[0]);
+            int cols = Integer.parseInt(rc[1]);
+            numCols = rows * cols;
+            matrix = dominoMatrix(rows, cols);
+        } else {
+            int n = Integer.parseInt(board);
+            if (n < 3 || n > 6) {
+                System.err.println("n must be 3, 4, 5, or 6.");
+                return;
+            }
+            numCols = PentominoSolver.NUM_PIECES + 60;
+            matrix = PentominoSolver.buildExactCoverMatrix(n, 60 / n, PentominoPieces.SHAPES);
+        }
+
+        long start = System.nanoTime();
+        MemoDLX memo = new MemoDLX(numCols, matrix, cacheBits, zdd);
+        long solutions = memo.count();
+        System.out.println(solutions);
+        System.err.printf("%.1f ms, %d hits, %d misses, %d evictions%n", (System.nanoTime() - start) / 1e6,
+                memo.getHits(), memo.getMisses(), memo.getEvictions());
+        if (zdd) {
+            System.err.printf("%d DAG nodes, %d solutions in the DAG%n", memo.getZddSize(),
+                    memo.countZdd(memo.getZdd()));
+        }
+    }
+
+    // one column per cell, one row per horizontal or vertical domino
+    static ArrayList<ArrayList<Integer>> dominoMatrix(int rows, int cols) {
+        ArrayList<ArrayList<Integer>> matrix = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int cell = r * cols + c;
+                if (c + 1 < cols) {
+                    matrix.add(new ArrayList<>(Arrays.asList(cell, cell + 1)));
+                }
+                if (r + 1 < rows) {
+                    matrix.add(new ArrayList<>(Arrays.asList(cell, cell + cols)));
+                }
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Parallel solution counting on top of DLX1.
+//
+// The top splitDepth levels of the search tree are expanded into tasks: a task
+// is the list of rows chosen so far (node ids of DLX1). It borrows a copy of the
+// links from its count's free list, or makes one if the list is empty, replays
+// those rows on it (DLX1.choose), then either forks one child task per row of
+// the next branching column or, at splitDepth, counts the rest of the subtree
+// sequentially. Before forking it unchooses the rows and gives the clean copy
+// back. So a count makes about one copy per busy worker, and the copies go with
+// the free list when count returns, whatever pool ran it. Tasks run on a
+// ForkJoinPool, whose work stealing balances subtrees of very different sizes.
+// The counts are summed, so the total equals DLX.getNumberOfSolutions().
+public class ParallelDLX {
+
+    // deep enough for a few thousand tasks on the pentomino boards
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final DLX1 template;
+    private final int splitDepth;
+
+    public ParallelDLX(int numberOfCols, ArrayList<ArrayList<Integer>> matrix) {
+        this(numberOfCols, matrix, DEFAULT_SPLIT_DEPTH);
+    }
+
+    public ParallelDLX(int numberOfCols, ArrayList<ArrayList<Integer>> matrix, int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("splitDepth must be non-negative: " + splitDepth);
+        }
+        this.template = new DLX1(numberOfCols, matrix);
+        this.splitDepth = splitDepth;
+    }
+
+    public long count(ForkJoinPool pool) {
+        return pool.invoke(new Subproblem(new int[0], new ConcurrentLinkedQueue<>()));
+    }
+
+    private class Subproblem extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] chosen;
+        // clean link copies of this count, not in use by any task
+        private final ConcurrentLinkedQueue<DLX1> copies;
+
+        Subproblem(int[] chosen, ConcurrentLinkedQueue<DLX1> copies) {
+            this.chosen = chosen;
+            this.copies = copies;
+        }
+
+        @Override
+        protected Long compute() {
+            DLX1 dlx = copies.poll();
+            if (dlx == null) {
+                dlx = new DLX1(template);
+            }
+            for (int r : chosen) {
+                dlx.choose(r);
+            }
+
+            long total = 0;
+            int[] rows = null;
+            if (dlx.isSolved()) {
+                total = 1;
+            } else if (chosen.length >= splitDepth) {
+                total = dlx.count();
+            } else {
+                rows = dlx.branchRows();
+            }
+
+            // give the copy back clean before forking, for the children to reuse
+            for (int i = chosen.length - 1; i >= 0; i--) {
+                dlx.unchoose(chosen[i]);
+            }
+            copies.add(dlx);
+
+            if (rows != null && rows.length > 0) {
+                ArrayList<Subproblem> children = new ArrayList<>(rows.length);
+                for (int r : rows) {
+                    int[] next = new int[chosen.length + 1];
+                    System.arraycopy(chosen, 0, next, 0, chosen.length);
+                    next[chosen.length] = r;
+                    children.add(new Subproblem(next, copies));
+                }
+                for (Subproblem child : invokeAll(children)) {
+                    total += child.join();
+                }
+            }
+            return total;
+        }
+    }
+}
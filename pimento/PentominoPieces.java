@@ -7,6 +7,21 @@ public class PentominoPieces {
         {0, 1, 1, -1, 1, 0, 2, 0}
     };
 
+    // All 8 orientations of F. F above keeps only two of them, one from each
+    // orbit under the 4 symmetries of a non-square rectangle, so SHAPES counts
+    // every tiling once up to rotation/reflection of the board and SHAPES_ALL
+    // counts it 4 times (see PentominoSolver.breakSymmetry).
+    static final int[][] F_ALL = {
+        {1, -1, 1, 0, 1, 1, 2, 1},
+        {1, -2, 1, -1, 1, 0, 2, -1},
+        {1, -1, 1, 0, 1, 1, 2, -1},
+        {1, 0, 1, 1, 1, 2, 2, 1},
+        {1, -1, 1, 0, 2, 0, 2, 1},
+        {0, 1, 1, -1, 1, 0, 2, 0},
+        {1, 0, 1, 1, 2, -1, 2, 0},
+        {0, 1, 1, 1, 1, 2, 2, 1}
+    };
+
     static final int[][] I = {
         {0, 1, 0, 2, 0, 3, 0, 4},
         {1, 0, 2, 0, 3, 0, 4, 0}
@@ -96,4 +111,9 @@ public class PentominoPieces {
     };
 
     public static final int[][][] SHAPES = { F, I, L, N, P, T, U, V, W, X, Y, Z };
+
+    // every orientation of every piece, no symmetry breaking
+    public static final int[][][] SHAPES_ALL = { F_ALL, I, L, N, P, T, U, V, W, X, Y, Z };
+
+    public static final String NAMES = "FILNPTUVWXYZ";
 }
@@ -1,11 +1,71 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class PentominoSolver  {
 
-    private static final int NUM_PIECES = 12; // F, I, L, N, P, T, U, V, W, X, Y, Z
+    static final int NUM_PIECES = 12; // F, I, L, N, P, T, U, V, W, X, Y, Z
 
+    // optional: --parallel[=T]  count on T threads (default: all cores) with ParallelDLX
+    //           --bitboard       count with BitboardSolver instead of DLX
+    //           --all            every orientation of every piece (SHAPES_ALL), so each
+    //                            tiling is counted once per symmetry of the board
+    //           --canonical=P    SHAPES_ALL with piece P restricted by breakSymmetry;
+    //                            prints the canonical count and the expanded full count
+    //           --print=K        print the first K tilings as letter grids, then the count
+    //           --limit=K        stop after K tilings
+    //           --timeout=MS     give up after MS milliseconds and print the count so far
+    // With neither --all nor --canonical, SHAPES is used: its reduced F already counts
+    // each tiling once. --bitboard and --parallel only count, so they cannot be combined
+    // with each other or with --print, --limit or --timeout.
     public static void main(String[] args) {
+        int threads = 0;
+        boolean bitboard = false;
+        int print = 0;
+        int limit = 0;
+        long timeout = 0;
+        int[][][] shapes = PentominoPieces.SHAPES;
+        int canonicalPiece = -1;
+        for (String arg : args) {
+            if (arg.equals("--bitboard")) {
+                bitboard = true;
+            } else if (arg.equals("--all")) {
+                shapes = PentominoPieces.SHAPES_ALL;
+            } else if (arg.startsWith("--canonical=")) {
+                shapes = PentominoPieces.SHAPES_ALL;
+                canonicalPiece = PentominoPieces.NAMES.indexOf(arg.substring("--canonical=".length()).toUpperCase());
+                if (canonicalPiece < 0 || arg.length() != "--canonical=".length() + 1) {
+                    System.err.println("Unknown piece in " + arg + ", expected one of " + PentominoPieces.NAMES);
+                    return;
+                }
+            } else if (arg.startsWith("--print=")) {
+                print = Integer.parseInt(arg.substring("--print=".length()));
+            } else if (arg.startsWith("--limit=")) {
+                limit = Integer.parseInt(arg.substring("--limit=".length()));
+            } else if (arg.startsWith("--timeout=")) {
+                timeout = Long.parseLong(arg.substring("--timeout=".length()));
+            } else if (arg.equals("--parallel")) {
+                threads = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                threads = Integer.parseInt(arg.substring("--parallel=".length()));
+            } else {
+                System.err.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        boolean streaming = print > 0 || limit > 0 || timeout > 0;
+        if (bitboard && threads > 0) {
+            System.err.println("--bitboard and --parallel cannot be combined");
+            return;
+        }
+        if ((bitboard || threads > 0) && streaming) {
+            System.err.println((bitboard ? "--bitboard" : "--parallel")
+                    + " only counts; it cannot be combined with --print, --limit or --timeout");
+            return;
+        }
+
         Scanner sc = new Scanner(System.in);
         if (!sc.hasNextInt()) {
             System.err.println("Please provide an integer n in {3, 4, 5, 6}.");
@@ -41,18 +101,135 @@ public class PentominoSolver  {
         int numCols = NUM_PIECES + numCells; 
 
         ArrayList<ArrayList<Integer>> matrix =
-        buildExactCoverMatrix(rows, cols, PentominoPieces.SHAPES);
+        buildExactCoverMatrix(rows, cols, shapes);
+        if (canonicalPiece >= 0) {
+            try {
+                matrix = breakSymmetry(matrix, rows, cols, canonicalPiece);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+        }
+
+        long solutions;
+        boolean complete = true;
+        if (bitboard) {
+            solutions = new BitboardSolver(rows, cols, matrix).count();
+        } else if (threads > 0) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            solutions = new ParallelDLX(numCols, matrix).count(pool);
+            pool.shutdown();
+        } else {
+            DLX dlx = new DLX(numCols, matrix);
+            ArrayList<ArrayList<Integer>> placements = matrix;
+            int printed = print;
+            DLX.SolutionListener printer = print == 0 ? null : (chosen, length) -> {
+                if (dlx.getNumberOfSolutions() <= printed) {
+                    System.out.println(render(rows, cols, placements, chosen, length));
+                }
+            };
+            dlx.run(printer, limit, timeout);
+            solutions = dlx.getNumberOfSolutions();
+            complete = dlx.isComplete();
+            if (!complete && (limit == 0 || solutions < limit)) {
+                System.err.println("timed out after " + timeout + " ms; the count is incomplete");
+            }
+        }
 
-    
-        DLX dlx = new DLX(numCols, matrix);
-        dlx.run();
+        if (canonicalPiece >= 0 && complete) {
+            // every canonical tiling stands for one tiling per board symmetry
+            System.out.println(solutions + " canonical, " + solutions * symmetryCount(rows, cols) + " in total");
+        } else {
+            System.out.println(solutions);
+        }
+    }
 
-        int solutions = dlx.getNumberOfSolutions();
-        System.out.println(solutions);
+    // one tiling as a grid of piece letters, from the matrix rows it uses
+    static String render(int rows, int cols, ArrayList<ArrayList<Integer>> matrix, int[] chosen, int length) {
+        char[] grid = new char[rows * cols];
+        Arrays.fill(grid, '.');
+        for (int i = 0; i < length; i++) {
+            ArrayList<Integer> row = matrix.get(chosen[i]);
+            char letter = PentominoPieces.NAMES.charAt(row.get(0));
+            for (int k = 1; k < row.size(); k++) {
+                grid[row.get(k) - NUM_PIECES] = letter;
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            sb.append(grid, r * cols, cols).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // symmetries of a rows x cols board: 4 for a rectangle, 8 for a square
+    static int symmetryCount(int rows, int cols) {
+        return rows == cols ? 8 : 4;
+    }
+
+    // cell (r, c) moved by board symmetry s (0 is the identity)
+    static int mapCell(int s, int r, int c, int rows, int cols) {
+        switch (s) {
+            case 0: return r * cols + c;
+            case 1: return (rows - 1 - r) * cols + (cols - 1 - c); // half turn
+            case 2: return r * cols + (cols - 1 - c);              // mirror left-right
+            case 3: return (rows - 1 - r) * cols + c;              // mirror top-bottom
+            // square boards only
+            case 4: return c * cols + r;                           // transpose
+            case 5: return (cols - 1 - c) * cols + (rows - 1 - r); // anti-transpose
+            case 6: return c * cols + (rows - 1 - r);              // quarter turn
+            default: return (cols - 1 - c) * cols + r;             // three-quarter turn
+        }
+    }
+
+    // Symmetry breaking: keeps only the placements of piece that are the
+    // smallest (as sorted cell lists) in their orbit under the board's
+    // symmetries. Every tiling has exactly one image whose copy of piece is such a
+    // placement, so the count drops by symmetryCount(rows, cols) and multiplying
+    // back gives the full count. matrix must contain every orientation of piece
+    // (build it from SHAPES_ALL), and piece must have no placement that a board
+    // symmetry maps onto itself: F, L, N, P or Y work on any rectangle, while
+    // X, T, U, V, W, I and Z can sit on an axis of the board.
+    static ArrayList<ArrayList<Integer>> breakSymmetry(
+            ArrayList<ArrayList<Integer>> matrix, int rows, int cols, int piece) {
+
+        int symmetries = symmetryCount(rows, cols);
+        ArrayList<ArrayList<Integer>> kept = new ArrayList<>();
+        for (ArrayList<Integer> row : matrix) {
+            if (row.get(0) != piece) {
+                kept.add(row);
+                continue;
+            }
+
+            int[] cells = new int[row.size() - 1];
+            for (int k = 1; k < row.size(); k++) {
+                cells[k - 1] = row.get(k) - NUM_PIECES;
+            }
+            Arrays.sort(cells);
+
+            boolean smallest = true;
+            int[] image = new int[cells.length];
+            for (int s = 1; s < symmetries && smallest; s++) {
+                for (int k = 0; k < cells.length; k++) {
+                    image[k] = mapCell(s, cells[k] / cols, cells[k] % cols, rows, cols);
+                }
+                Arrays.sort(image);
+                int cmp = Arrays.compare(image, cells);
+                if (cmp == 0) {
+                    throw new IllegalArgumentException("piece " + PentominoPieces.NAMES.charAt(piece)
+                            + " has a placement fixed by a board symmetry; pick F, L, N, P or Y");
+                }
+                smallest = cmp > 0;
+            }
+            if (smallest) {
+                kept.add(row);
+            }
+        }
+        return kept;
     }
 
 
-    private static ArrayList<ArrayList<Integer>> buildExactCoverMatrix(
+    static ArrayList<ArrayList<Integer>> buildExactCoverMatrix(
             int rows, int cols, int[][][] shapes) {
 
         ArrayList<ArrayList<Integer>> matrix = new ArrayList<>();
@@ -0,0 +1,195 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// One polyomino of a piece set: a base shape, from which every orientation is
+// generated, and how many copies of it the set has.
+//
+// Cells are flat (x0, y0, x1, y1, ...) arrays like the offsets in
+// PentominoPieces, x to the right and y down. A normalized shape has its cells
+// sorted by (y, x) and the first one moved to (0, 0), so two shapes are equal
+// as sets exactly when their normalized arrays are equal.
+public class Polyomino {
+
+    final String name;
+    final int[] cells;
+    final int count;
+
+    public Polyomino(String name, int[] cells, int count) {
+        if (cells.length == 0 || cells.length % 2 != 0) {
+            throw new IllegalArgumentException("bad cell list for " + name);
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1 for " + name + ": " + count);
+        }
+        this.name = name;
+        this.cells = normalize(cells);
+        this.count = count;
+    }
+
+    // a PentominoPieces-style orientation: origin (0, 0) plus offsets
+    static Polyomino fromOffsets(String name, int[] offsets) {
+        int[] cells = new int[offsets.length + 2];
+        System.arraycopy(offsets, 0, cells, 2, offsets.length);
+        return new Polyomino(name, cells, 1);
+    }
+
+    int size() {
+        return cells.length / 2;
+    }
+
+    // every distinct orientation under rotation and reflection, normalized
+    int[][] orientations() {
+        List<int[]> distinct = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int t = 0; t < 8; t++) {
+            int[] o = normalize(transform(cells, t));
+            if (seen.add(Arrays.toString(o))) {
+                distinct.add(o);
+            }
+        }
+        return distinct.toArray(new int[0][]);
+    }
+
+    // the cells moved by symmetry t of the square: rotations for t < 4, then mirrored
+    static int[] transform(int[] cells, int t) {
+        int[] out = new int[cells.length];
+        for (int k = 0; k < cells.length; k += 2) {
+            int x = cells[k];
+            int y = cells[k + 1];
+            if (t >= 4) {
+                x = -x;
+            }
+            for (int i = 0; i < t % 4; i++) {
+                int tmp = x;
+                x = -y;
+                y = tmp;
+            }
+            out[k] = x;
+            out[k + 1] = y;
+        }
+        return out;
+    }
+
+    static int[] normalize(int[] cells) {
+        int n = cells.length / 2;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int k = 0; k < cells.length; k += 2) {
+            minX = Math.min(minX, cells[k]);
+            minY = Math.min(minY, cells[k + 1]);
+        }
+        // non-negative after the shift, so the packed longs sort by (y, x)
+        long[] packed = new long[n];
+        for (int k = 0; k < n; k++) {
+            packed[k] = ((long) (cells[2 * k + 1] - minY) << 32) | (cells[2 * k] - minX);
+        }
+        Arrays.sort(packed);
+        int[] out = new int[cells.length];
+        int ox = (int) packed[0];
+        int oy = (int) (packed[0] >> 32);
+        for (int k = 0; k < n; k++) {
+            out[2 * k] = (int) packed[k] - ox;
+            out[2 * k + 1] = (int) (packed[k] >> 32) - oy;
+        }
+        return out;
+    }
+
+    // the same shape up to rotation and reflection: the smallest normalized orientation
+    static String canonical(int[] cells) {
+        String best = null;
+        for (int t = 0; t < 8; t++) {
+            String s = Arrays.toString(normalize(transform(cells, t)));
+            if (best == null || s.compareTo(best) < 0) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    // all free polyominoes of size n (1, 1, 1, 2, 5, 12, 35, 108, ...), each once
+    static List<Polyomino> free(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("size must be at least 1: " + n);
+        }
+        List<int[]> level = new ArrayList<>();
+        level.add(new int[] {0, 0});
+        for (int size = 2; size <= n; size++) {
+            Set<String> seen = new HashSet<>();
+            List<int[]> next = new ArrayList<>();
+            for (int[] shape : level) {
+                for (int k = 0; k < shape.length; k += 2) {
+                    for (int d = 0; d < 4; d++) {
+                        int x = shape[k] + (d == 0 ? 1 : d == 1 ? -1 : 0);
+                        int y = shape[k + 1] + (d == 2 ? 1 : d == 3 ? -1 : 0);
+                        if (contains(shape, x, y)) continue;
+                        int[] grown = Arrays.copyOf(shape, shape.length + 2);
+                        grown[shape.length] = x;
+                        grown[shape.length + 1] = y;
+                        if (seen.add(canonical(grown))) {
+                            next.add(normalize(grown));
+                        }
+                    }
+                }
+            }
+            level = next;
+        }
+
+        List<Polyomino> pieces = new ArrayList<>();
+        for (int i = 0; i < level.size(); i++) {
+            pieces.add(new Polyomino(n + "-" + (i + 1), level.get(i), 1));
+        }
+        return pieces;
+    }
+
+    private static boolean contains(int[] cells, int x, int y) {
+        for (int k = 0; k < cells.length; k += 2) {
+            if (cells[k] == x && cells[k + 1] == y) return true;
+        }
+        return false;
+    }
+
+    // Reads a piece set: blocks separated by blank lines, each a header line
+    // "name [count]" followed by a drawing where '#' marks the cells, e.g.
+    //     L 2
+    //     #
+    //     #
+    //     ##
+    static List<Polyomino> parse(BufferedReader br) throws IOException {
+        List<Polyomino> pieces = new ArrayList<>();
+        String line = br.readLine();
+        while (line != null) {
+            if (line.trim().isEmpty()) {
+                line = br.readLine();
+                continue;
+            }
+            String[] header = line.trim().split("\\s+");
+            String name = header[0];
+            int count = header.length > 1 ? Integer.parseInt(header[1]) : 1;
+
+            List<Integer> cells = new ArrayList<>();
+            int y = 0;
+            for (line = br.readLine(); line != null && !line.trim().isEmpty(); line = br.readLine(), y++) {
+                for (int x = 0; x < line.length(); x++) {
+                    if (line.charAt(x) == '#') {
+                        cells.add(x);
+                        cells.add(y);
+                    }
+                }
+            }
+            if (cells.isEmpty()) {
+                throw new IllegalArgumentException("piece " + name + " has no cells");
+            }
+            int[] flat = new int[cells.size()];
+            for (int i = 0; i < flat.length; i++) {
+                flat[i] = cells.get(i);
+            }
+            pieces.add(new Polyomino(name, flat, count));
+        }
+        return pieces;
+    }
+}
@@ -0,0 +1,345 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Counts tilings of any board mask (holes allowed) by any polyomino set,
+// through the same exact-cover matrix idea as PentominoSolver and DLX1.
+//
+// Columns: one per piece copy, then one per open board cell. Each orientation
+// of each piece (Polyomino.orientations) is tried with its first cell on every
+// open cell; a legal placement becomes one row per copy of the piece. Copies of
+// the same piece are interchangeable, so every tiling is found count! times for
+// a piece with count copies, and the total is divided by those factorials.
+// Every piece copy must be used, so the pieces must cover the board exactly.
+//
+// The matrix is cached: loadOrBuild keys it on the board mask and the piece
+// set (counts and canonical shapes, so a different drawing of the same piece
+// hits the same entry), stores it in cacheDir/<key hash>.cover and reuses it
+// when the stored key matches. A cache that cannot be read or written only
+// costs a warning on stderr; the matrix is then built and used as it is.
+//
+// Usage: java PolyominoSolver [--board=RxC | --board-file=F] [--pieces=N | --pieces-file=F]
+//                             [--cache=DIR | --no-cache] [--memo[=B]]
+// --memo counts with MemoDLX and a table of 2^B entries (default
+// MemoDLX.DEFAULT_CACHE_BITS) instead of DLX1, for boards where the same
+// partial tilings are reached in many orders. Copies of a piece stay distinct
+// columns, so their count! repeats are not shared.
+// A board file has one line per row, '.' for a cell to tile and '#' for a
+// hole. A pieces file is read by Polyomino.parse; --pieces=N is every free
+// N-omino once. Defaults: --board=6x10 --pieces=5 --cache=.polyomino-cache.
+public class PolyominoSolver {
+
+    private static final int MAGIC = 0x504F4C59;
+    private static final int VERSION = 1;
+
+    private final int rows;
+    private final int cols;
+    private final boolean[] open;
+    private final List<Polyomino> pieces;
+
+    public PolyominoSolver(int rows, int cols, boolean[] open, List<Polyomino> pieces) {
+        if (open.length != rows * cols) {
+            throw new IllegalArgumentException("board mask has " + open.length + " cells, expected " + rows * cols);
+        }
+        int cells = 0;
+        for (boolean b : open) {
+            if (b) cells++;
+        }
+        int area = 0;
+        for (Polyomino p : pieces) {
+            area += p.size() * p.count;
+        }
+        if (cells != area) {
+            throw new IllegalArgumentException("board has " + cells + " open cells but the pieces cover " + area);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.open = open;
+        this.pieces = pieces;
+    }
+
+    // columns of the exact-cover matrix: piece copies, then open cells
+    int numberOfColumns() {
+        int columns = 0;
+        for (Polyomino p : pieces) {
+            columns += p.count;
+        }
+        for (boolean b : open) {
+            if (b) columns++;
+        }
+        return columns;
+    }
+
+    ArrayList<ArrayList<Integer>> buildMatrix() {
+        int copies = 0;
+        for (Polyomino p : pieces) {
+            copies += p.count;
+        }
+        int[] cellColumn = new int[rows * cols];
+        int next = copies;
+        for (int i = 0; i < cellColumn.length; i++) {
+            cellColumn[i] = open[i] ? next++ : -1;
+        }
+
+        ArrayList<ArrayList<Integer>> matrix = new ArrayList<>();
+        int firstCopy = 0;
+        for (Polyomino piece : pieces) {
+            for (int[] orient : piece.orientations()) {
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < cols; c++) {
+                        int[] placement = place(orient, r, c, cellColumn);
+                        if (placement == null) continue;
+                        for (int copy = 0; copy < piece.count; copy++) {
+                            ArrayList<Integer> row = new ArrayList<>(placement.length + 1);
+                            row.add(firstCopy + copy);
+                            for (int col : placement) {
+                                row.add(col);
+                            }
+                            matrix.add(row);
+                        }
+                    }
+                }
+            }
+            firstCopy += piece.count;
+        }
+        return matrix;
+    }
+
+    // cell columns of orient with its first cell at (r, c), null if it leaves the board or hits a hole
+    private int[] place(int[] orient, int r, int c, int[] cellColumn) {
+        int[] cols = new int[orient.length / 2];
+        for (int k = 0; k < orient.length; k += 2) {
+            int rr = r + orient[k + 1];
+            int cc = c + orient[k];
+            if (rr < 0 || rr >= rows || cc < 0 || cc >= this.cols) return null;
+            int col = cellColumn[rr * this.cols + cc];
+            if (col < 0) return null;
+            cols[k / 2] = col;
+        }
+        return cols;
+    }
+
+    // tilings of the board, from the cached matrix when there is one
+    public long count(File cacheDir) throws IOException {
+        return count(cacheDir, 0);
+    }
+
+    // as count(cacheDir), memoized by MemoDLX with 2^memoBits entries when memoBits > 0
+    public long count(File cacheDir, int memoBits) throws IOException {
+        ArrayList<ArrayList<Integer>> matrix = cacheDir == null ? buildMatrix() : loadOrBuild(cacheDir);
+        long total;
+        if (memoBits > 0) {
+            total = new MemoDLX(numberOfColumns(), matrix, memoBits, false).count();
+        } else {
+            DLX1 dlx = new DLX1(numberOfColumns(), matrix);
+            dlx.run();
+            total = dlx.getNumberOfSolutions();
+        }
+        for (Polyomino p : pieces) {
+            for (int k = 2; k <= p.count; k++) {
+                total /= k;
+            }
+        }
+        return total;
+    }
+
+    // identifies board and piece set: dimensions, mask, then count and canonical shape of each piece
+    byte[] cacheKey() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(rows);
+            out.writeInt(cols);
+            for (boolean b : open) {
+                out.writeBoolean(b);
+            }
+            out.writeInt(pieces.size());
+            for (Polyomino p : pieces) {
+                out.writeInt(p.count);
+                out.writeUTF(Polyomino.canonical(p.cells));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // FNV-1a over the key, for the file name
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    public ArrayList<ArrayList<Integer>> loadOrBuild(File cacheDir) throws IOException {
+        byte[] key = cacheKey();
+        File file = new File(cacheDir, String.format("%016x.cover", hash(key)));
+        if (file.exists()) {
+            try {
+                ArrayList<ArrayList<Integer>> matrix = read(file, key);
+                if (matrix != null) {
+                    return matrix;
+                }
+            } catch (IOException e) {
+                System.err.println("warning: ignoring unreadable cache file " + file + ": " + e);
+            }
+        }
+        ArrayList<ArrayList<Integer>> matrix = buildMatrix();
+        try {
+            store(cacheDir, file, key, matrix);
+        } catch (IOException e) {
+            // the cache only saves time: count from the fresh matrix anyway
+            System.err.println("warning: not caching the matrix: " + e.getMessage());
+        }
+        return matrix;
+    }
+
+    private void store(File cacheDir, File file, byte[] key, ArrayList<ArrayList<Integer>> matrix) throws IOException {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new IOException("cannot create cache directory " + cacheDir);
+        }
+        // written aside and renamed, so a reader never sees half a file
+        File tmp = new File(cacheDir, file.getName() + ".tmp");
+        try {
+            write(tmp, key, matrix, numberOfColumns());
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("cannot rename " + tmp + " to " + file);
+                }
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    // Layout: MAGIC, VERSION, key, columns, rows, then per row its length
+    // (a byte) and its columns as unsigned shorts (ints above 65535 columns).
+    static void write(File file, byte[] key, ArrayList<ArrayList<Integer>> matrix, int columns) throws IOException {
+        boolean wide = columns > 0xFFFF;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(columns);
+            out.writeInt(matrix.size());
+            for (ArrayList<Integer> row : matrix) {
+                if (row.size() > 0xFF) {
+                    throw new IllegalArgumentException("row too long for the cache format: " + row.size());
+                }
+                out.writeByte(row.size());
+                for (int col : row) {
+                    if (wide) {
+                        out.writeInt(col);
+                    } else {
+                        out.writeShort(col);
+                    }
+                }
+            }
+        }
+    }
+
+    // the cached matrix, null if the file is of another version or for another key
+    static ArrayList<ArrayList<Integer>> read(File file, byte[] key) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readInt()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, key)) {
+                return null;
+            }
+            int columns = in.readInt();
+            boolean wide = columns > 0xFFFF;
+            int n = in.readInt();
+            ArrayList<ArrayList<Integer>> matrix = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int len = in.readUnsignedByte();
+                ArrayList<Integer> row = new ArrayList<>(len);
+                for (int k = 0; k < len; k++) {
+                    row.add(wide ? in.readInt() : in.readUnsignedShort());
+                }
+                matrix.add(row);
+            }
+            return matrix;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = 6;
+        int cols = 10;
+        boolean[] open = null;
+        List<Polyomino> pieces = null;
+        int pieceSize = 5;
+        File cacheDir = new File(".polyomino-cache");
+        int memoBits = 0;
+
+        for (String arg : args) {
+            if (arg.startsWith("--board=")) {
+                String[] rc = arg.substring("--board=".length()).split("x");
+                rows = Integer.parseInt(rc[0]);
+                cols = Integer.parseInt(rc[1]);
+                open = null;
+            } else if (arg.startsWith("--board-file=")) {
+                List<String> lines = new ArrayList<>();
+                try (BufferedReader br = new BufferedReader(new FileReader(arg.substring("--board-file=".length()),
+                        StandardCharsets.UTF_8))) {
+                    for (String line; (line = br.readLine()) != null; ) {
+                        if (!line.trim().isEmpty()) lines.add(line);
+                    }
+                }
+                rows = lines.size();
+                cols = 0;
+                for (String line : lines) {
+                    cols = Math.max(cols, line.length());
+                }
+                open = new boolean[rows * cols];
+                for (int r = 0; r < rows; r++) {
+                    String line = lines.get(r);
+                    for (int c = 0; c < line.length(); c++) {
+                        open[r * cols + c] = line.charAt(c) == '.';
+                    }
+                }
+            } else if (arg.startsWith("--pieces=")) {
+                pieceSize = Integer.parseInt(arg.substring("--pieces=".length()));
+                pieces = null;
+            } else if (arg.startsWith("--pieces-file=")) {
+                try (BufferedReader br = new BufferedReader(new FileReader(arg.substring("--pieces-file=".length()),
+                        StandardCharsets.UTF_8))) {
+                    pieces = Polyomino.parse(br);
+                }
+            } else if (arg.startsWith("--cache=")) {
+                cacheDir = new File(arg.substring("--cache=".length()));
+            } else if (arg.equals("--no-cache")) {
+                cacheDir = null;
+            } else if (arg.equals("--memo")) {
+                memoBits = MemoDLX.DEFAULT_CACHE_BITS;
+            } else if (arg.startsWith("--memo=")) {
+                memoBits = Integer.parseInt(arg.substring("--memo=".length()));
+            } else {
+                System.err.println("Unknown option: " + arg);
+                return;
+            }
+        }
+        if (open == null) {
+            open = new boolean[rows * cols];
+            Arrays.fill(open, true);
+        }
+        if (pieces == null) {
+            pieces = Polyomino.free(pieceSize);
+        }
+
+        long start = System.nanoTime();
+        long tilings = new PolyominoSolver(rows, cols, open, pieces).count(cacheDir, memoBits);
+        System.out.println(tilings);
+        System.err.printf("%d pieces on %dx%d in %.1f ms%n", pieces.size(), rows, cols, (System.nanoTime() - start) / 1e6);
+    }
+}